@@ -0,0 +1,10 @@
+package com.example.BACKEND_HMS.DTO;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CartBatchRequest {
+    private List<CartOperationDTO> operations;
+}
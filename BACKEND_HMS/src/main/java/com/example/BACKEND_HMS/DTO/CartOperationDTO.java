@@ -0,0 +1,23 @@
+package com.example.BACKEND_HMS.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Batch cart ka ek operation.
+ *  ADD    → productId, quantity (existing line mein jud jaata hai)
+ *  SET    → productId ya cartItemId, quantity (0 = remove)
+ *  REMOVE → productId ya cartItemId
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperationDTO {
+    private String op;
+    private Long productId;
+    private Long cartItemId;
+    private Integer quantity;
+}
@@ -0,0 +1,22 @@
+package com.example.BACKEND_HMS.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSweepReportDTO {
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime idleBefore;   // is time ke baad jis cart mein kuch nahi aaya woh purge
+    private Long cartsDeleted;
+    private Long itemsDeleted;
+    private Integer batches;
+    private Long skippedActive;         // memory mein (abhi use ho rahe) - chhod diye
+}
@@ -0,0 +1,25 @@
+package com.example.BACKEND_HMS.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogSyncDTO {
+    private Long watermark;        // agli call mein ?since= yahi bhejo (epoch millis)
+    private Boolean fullResync;    // true → yeh poora catalog hai, local copy replace karo
+
+    private List<CategoryResponseDTO> categories;
+    private List<SubCategoryResponseDTO> subCategories;
+    private List<ProductResponseDTO> products;
+
+    private List<Long> deletedCategoryIds;
+    private List<Long> deletedSubCategoryIds;
+    private List<Long> deletedProductIds;
+}
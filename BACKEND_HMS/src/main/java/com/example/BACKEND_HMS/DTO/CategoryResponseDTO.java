@@ -16,6 +16,10 @@ public class CategoryResponseDTO {
     private String name;
     private String description;
     private String imageUrl;
+    // Server-side resized (MediaUrls) - purane non-hash uploads ke liye null
+    private String thumbnailUrl;
+    private String listImageUrl;
     private Boolean isActive;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.BACKEND_HMS.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryTreeDTO {
+    private Long categoryId;
+    private String name;
+    private String imageUrl;
+    private Long productCount;   // saari subcategories ke available products ka total
+    private List<SubCategoryNodeDTO> subCategories;
+}
@@ -0,0 +1,26 @@
+package com.example.BACKEND_HMS.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImagePurgeJobDTO {
+    private Long jobId;
+    private String reason;          // kis delete se aaya, jaise "products:delete-all"
+    private Integer total;
+    private Integer deleted;
+    private Integer failed;
+    private Integer pending;
+    private Boolean finished;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private List<String> failedUrls;   // saari retries ke baad bhi fail
+}
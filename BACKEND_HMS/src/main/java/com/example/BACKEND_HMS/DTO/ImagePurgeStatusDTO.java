@@ -0,0 +1,20 @@
+package com.example.BACKEND_HMS.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImagePurgeStatusDTO {
+    private Long pending;       // queue mein ya retry ka wait kar rahe
+    private Long deleted;       // app start se ab tak
+    private Long failed;
+    private Long retries;
+    private List<ImagePurgeJobDTO> recentJobs;
+}
@@ -0,0 +1,23 @@
+package com.example.BACKEND_HMS.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaUploadJobDTO {
+    private Long jobId;
+    private String status;        // QUEUED → RUNNING → DONE / FAILED
+    private String targetType;    // CATEGORY, SUB_CATEGORY, PRODUCT
+    private Long targetId;
+    private String url;           // DONE hone par
+    private String error;         // FAILED hone par
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,23 @@
+package com.example.BACKEND_HMS.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkUpdateResultDTO {
+    private Integer requested;
+    private Integer updated;
+    private List<Long> updatedIds;   // committed - yeh badal chuke hain
+    private List<Long> notFound;     // DB mein aisa product nahi mila
+    private List<String> rejected;   // validation fail - DB tak gaye hi nahi
+    private List<Long> failed;       // chunk ki transaction fail - yeh rollback hue, dobara bhejo
+    private List<String> errors;     // har failed chunk ka ek reason
+    private Long elapsedMs;
+}
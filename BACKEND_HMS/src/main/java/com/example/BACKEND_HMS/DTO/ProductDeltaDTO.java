@@ -0,0 +1,20 @@
+package com.example.BACKEND_HMS.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Bulk update ki ek line - null field matlab "jaisa hai waisa rehne do"
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDeltaDTO {
+    private Long productId;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private Boolean isAvailable;
+}
@@ -0,0 +1,17 @@
+package com.example.BACKEND_HMS.DTO;
+
+import lombok.Data;
+
+import java.util.List;
+
+// GET /api/products/facets - ek facet ke andar values OR, alag facets AND
+@Data
+public class ProductFacetRequest {
+    private List<String> brand;
+    private List<String> unit;
+    private List<String> priceBand;      // "0-50", "50-100", "100-200", "200-500", "500+"
+    private List<Long> subCategoryId;
+    private Boolean isAvailable;
+    private Integer page = 0;
+    private Integer size = 20;
+}
@@ -0,0 +1,23 @@
+package com.example.BACKEND_HMS.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetResultDTO {
+    private List<ProductResponseDTO> items;
+    private Integer total;
+    private Integer page;
+    private Integer size;
+
+    // facet → (value → count), jaise { "brand": { "FreshFarm": 12 }, "priceBand": { "0-50": 30 } }
+    private Map<String, Map<String, Integer>> facets;
+}
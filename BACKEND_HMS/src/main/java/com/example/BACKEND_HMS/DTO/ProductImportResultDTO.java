@@ -0,0 +1,21 @@
+package com.example.BACKEND_HMS.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResultDTO {
+    private Long totalRows;
+    private Long imported;
+    private Long failed;
+    private List<ProductImportErrorDTO> errors;
+    private Boolean errorsTruncated;   // true → failed rows errors list se zyada hain
+    private Long elapsedMs;
+}
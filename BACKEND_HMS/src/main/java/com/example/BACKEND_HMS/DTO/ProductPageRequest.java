@@ -0,0 +1,19 @@
+package com.example.BACKEND_HMS.DTO;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+// GET /api/products/page ke query params - sab filters optional hain
+@Data
+public class ProductPageRequest {
+    private Long subCategoryId;
+    private Long categoryId;
+    private String brand;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Boolean isAvailable;
+    private String sort = "updated";   // updated (newest first) | price (low → high)
+    private String cursor;             // pichle page ka nextCursor
+    private Integer size = 20;
+}
@@ -19,6 +19,9 @@ public class ProductResponseDTO {
     private BigDecimal price;
     private Integer stockQuantity;
     private String imageUrl;
+    // Server-side resized (MediaUrls) - purane non-hash uploads ke liye null
+    private String thumbnailUrl;
+    private String listImageUrl;
     private String unit;
     private String brand;
     private Boolean isAvailable;
@@ -0,0 +1,17 @@
+package com.example.BACKEND_HMS.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockConflictDTO {
+    private Long productId;
+    private String productName;
+    private Integer requested;
+    private Integer available;   // 0 = product hi nahi raha
+}
@@ -0,0 +1,17 @@
+package com.example.BACKEND_HMS.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubCategoryNodeDTO {
+    private Long subCategoryId;
+    private String name;
+    private String imageUrl;
+    private Long productCount;   // sirf isAvailable = true products
+}
@@ -15,8 +15,12 @@ public class SubCategoryResponseDTO {
     private Long subCategoryId;
     private String name;
     private String imageUrl;
+    // Server-side resized (MediaUrls) - purane non-hash uploads ke liye null
+    private String thumbnailUrl;
+    private String listImageUrl;
     private Boolean isActive;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
 
     // Parent category info
     private Long categoryId;
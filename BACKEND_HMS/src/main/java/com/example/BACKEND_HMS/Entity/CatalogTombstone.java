@@ -0,0 +1,33 @@
+package com.example.BACKEND_HMS.Entity;
+
+import com.example.BACKEND_HMS.event.CatalogChangedEvent;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Delete hua catalog row - delta sync clients ko batane ke liye ki local copy se bhi hatao
+@Entity
+@Table(name = "catalog_tombstones", indexes = {
+        @Index(name = "idx_catalog_tombstones_deleted_at", columnList = "deleted_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CatalogChangedEvent.Kind kind;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,37 @@
+package com.example.BACKEND_HMS.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Content-addressed image - ek content (sha256) ek hi baar store, jitni entities use karein utna refCount
+@Entity
+@Table(name = "media_assets", indexes = {
+        @Index(name = "idx_media_assets_url", columnList = "url")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MediaAsset {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String sha256;
+
+    @Column(nullable = false, length = 1000)
+    private String url;
+
+    private String contentType;
+
+    private Long sizeBytes;
+
+    @Column(nullable = false)
+    private Integer refCount;
+
+    private LocalDateTime createdAt;
+}
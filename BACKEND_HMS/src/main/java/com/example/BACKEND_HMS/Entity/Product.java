@@ -6,7 +6,13 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // keyset pagination: (updatedAt, id) aur (price, id) seek ke liye
+        @Index(name = "idx_products_updated_at_id", columnList = "updated_at, product_id"),
+        @Index(name = "idx_products_price_id", columnList = "price, product_id"),
+        @Index(name = "idx_products_sub_category", columnList = "sub_category_id"),
+        @Index(name = "idx_products_brand", columnList = "brand")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -28,6 +34,12 @@ public class Product {
 
     private Integer stockQuantity;
 
+    // Pending online payments ke holds ka total - sirf InventoryService / StockReservationService
+    // ke conditional UPDATEs likhte hain; entity save ise kabhi overwrite nahi karta
+    @Column(name = "reserved_quantity", insertable = false, updatable = false,
+            columnDefinition = "integer default 0 not null")
+    private Integer reservedQuantity;
+
     private String imageUrl;
 
     private String unit; // kg, gram, litre, piece
@@ -43,4 +55,11 @@ public class Product {
     @ManyToOne
     @JoinColumn(name = "sub_category_id")
     private SubCategory subCategory;
-}
\ No newline at end of file
+
+    // Delta sync (/api/sync) isi column pe chalta hai - har insert / update pe bump
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.BACKEND_HMS.Entity;
 
 import jakarta.persistence.*;
+import com.example.BACKEND_HMS.service.UserCacheEvictionListener;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -14,6 +15,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheEvictionListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -1,6 +1,7 @@
 package com.example.BACKEND_HMS.config;
 
 import com.example.BACKEND_HMS.repository.UserRepository;
+import com.example.BACKEND_HMS.service.PasswordHashingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -27,10 +28,11 @@ public class ApplicationConfig {
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordHashingService passwordHashingService) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
+        // BCrypt matches bounded pool pe (user lookup request thread pe hi)
+        authProvider.setPasswordEncoder(passwordHashingService.boundedEncoder());
         return authProvider;
     }
 
@@ -0,0 +1,43 @@
+package com.example.BACKEND_HMS.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Catalog reads (categories / subcategories / product by id) in-process cache se.
+ * Service ke add / update / delete / uploadImage methods entries evict ya refresh karte hain.
+ * recordStats() → actuator "cache.gets" (hit/miss) metrics khud bind kar deta hai.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CATEGORY_LIST    = "categoryList";
+    public static final String SUB_CATEGORY_LIST = "subCategoryList";
+    public static final String PRODUCT_BY_ID    = "productById";
+
+    @Value("${catalog.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${catalog.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
+                CATEGORY_LIST, SUB_CATEGORY_LIST, PRODUCT_BY_ID);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
+}
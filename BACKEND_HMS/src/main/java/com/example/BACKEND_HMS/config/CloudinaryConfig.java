@@ -2,10 +2,19 @@ package com.example.BACKEND_HMS.config;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.beans.factory.annotation.Value;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Configuration
 public class CloudinaryConfig {
 
@@ -18,6 +27,13 @@ public class CloudinaryConfig {
     @Value("${cloudinary.api-secret}")
     private String apiSecret;
 
+    // Bulkhead - Cloudinary slow ho toh bhi sirf itne threads atakte hain
+    @Value("${cloudinary.bulkhead.threads:8}")
+    private int bulkheadThreads;
+
+    @Value("${cloudinary.bulkhead.queue-capacity:16}")
+    private int bulkheadQueueCapacity;
+
     @Bean
     public Cloudinary cloudinary() {
         return new Cloudinary(ObjectUtils.asMap(
@@ -27,4 +43,22 @@ public class CloudinaryConfig {
                 "secure", true
         ));
     }
-}
\ No newline at end of file
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService cloudinaryExecutor(MeterRegistry meterRegistry) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread t = new Thread(r, "cloudinary-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                bulkheadThreads, bulkheadThreads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(bulkheadQueueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "cloudinary");
+    }
+}
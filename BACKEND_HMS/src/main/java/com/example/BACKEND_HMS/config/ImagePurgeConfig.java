@@ -0,0 +1,33 @@
+package com.example.BACKEND_HMS.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Remote image deletes ka alag pool - threads = ek saath kitne Cloudinary calls; retries isi pe schedule hote hain
+@Configuration
+public class ImagePurgeConfig {
+
+    @Value("${media.purge.threads:4}")
+    private int threads;
+
+    @Bean(destroyMethod = "shutdown")
+    public ScheduledExecutorService imagePurgeExecutor(MeterRegistry meterRegistry) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread t = new Thread(r, "image-purge-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads, threadFactory);
+        executor.setRemoveOnCancelPolicy(true);
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "image.purge");
+    }
+}
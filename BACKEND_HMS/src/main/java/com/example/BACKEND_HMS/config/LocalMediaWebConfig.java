@@ -0,0 +1,27 @@
+package com.example.BACKEND_HMS.config;
+
+import com.example.BACKEND_HMS.service.LocalMediaStorage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.TimeUnit;
+
+// media.storage=local - stored images /media/** pe static files ki tarah (naam UUID hai, toh lamba cache)
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "media.storage", havingValue = "local")
+public class LocalMediaWebConfig implements WebMvcConfigurer {
+
+    private final LocalMediaStorage localMediaStorage;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler(LocalMediaStorage.URL_PREFIX + "**")
+                .addResourceLocations(localMediaStorage.getRoot().toUri().toString())
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic());
+    }
+}
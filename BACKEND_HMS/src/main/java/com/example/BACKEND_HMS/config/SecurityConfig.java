@@ -33,6 +33,9 @@ public class SecurityConfig {
                         // ── Public ──────────────────────────────────────
                         .requestMatchers("/api/auth/**").permitAll()
 
+                        // local images (content hash naam) + /media/derived thumbnails - app bina token ke load karti hai
+                        .requestMatchers(HttpMethod.GET, "/media/**").permitAll()
+
                         // ── Categories / SubCategories / Products ────────
                         // USER + ADMIN dono GET kar sakte hain
                         .requestMatchers(HttpMethod.GET,
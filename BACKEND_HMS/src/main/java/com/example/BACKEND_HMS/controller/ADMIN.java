@@ -1,19 +1,64 @@
 package com.example.BACKEND_HMS.controller;
 
+import com.example.BACKEND_HMS.DTO.CartSweepReportDTO;
+import com.example.BACKEND_HMS.DTO.ImagePurgeJobDTO;
+import com.example.BACKEND_HMS.DTO.ImagePurgeStatusDTO;
+import com.example.BACKEND_HMS.service.CartSweeperService;
+import com.example.BACKEND_HMS.service.ImagePurgeService;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/api/admin")
 @CrossOrigin(origins = "*")
+@RequiredArgsConstructor
 public class ADMIN {
 
+    private final ImagePurgeService imagePurgeService;
+    private final CartSweeperService cartSweeperService;
+
     @GetMapping("/dashboard")
     public ResponseEntity<String> dashboard() {
         return ResponseEntity.ok("Admin Dashboard");
     }
-}
\ No newline at end of file
+
+    // GET /api/admin/image-purge
+    // Delete ke baad background image purge ka progress - pending, deleted, failed, recent jobs
+    @GetMapping("/image-purge")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImagePurgeStatusDTO> imagePurgeStatus() {
+        return ResponseEntity.ok(imagePurgeService.status());
+    }
+
+    // GET /api/admin/image-purge/{jobId}
+    @GetMapping("/image-purge/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImagePurgeJobDTO> imagePurgeJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(imagePurgeService.getJob(jobId));
+    }
+
+    // GET /api/admin/cart-sweeper
+    // Pichhle abandoned-cart sweep ki report - abhi tak chala hi nahi toh 204
+    @GetMapping("/cart-sweeper")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CartSweepReportDTO> cartSweepReport() {
+        CartSweepReportDTO report = cartSweeperService.getLastReport();
+        return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+    }
+
+    // POST /api/admin/cart-sweeper/run
+    // Schedule ka wait kiye bina sweep - pehle se chal raha ho toh 409
+    @PostMapping("/cart-sweeper/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CartSweepReportDTO> runCartSweep() {
+        return ResponseEntity.ok(cartSweeperService.runNow());
+    }
+}
@@ -2,10 +2,10 @@ package com.example.BACKEND_HMS.controller;
 
 import com.example.BACKEND_HMS.DTO.AddressRequest;
 import com.example.BACKEND_HMS.Entity.Address;
+import com.example.BACKEND_HMS.jwtfilter.CurrentUser;
 import com.example.BACKEND_HMS.service.AddressService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
@@ -15,22 +15,21 @@ import java.util.List;
 public class AddressController {
 
     private final AddressService addressService;
+    private final CurrentUser currentUser;
 
     @GetMapping
-    public ResponseEntity<List<Address>> getMyAddresses(Authentication auth) {
-        return ResponseEntity.ok(addressService.getMyAddresses(auth.getName()));
+    public ResponseEntity<List<Address>> getMyAddresses() {
+        return ResponseEntity.ok(addressService.getMyAddresses(currentUser.get()));
     }
 
     @PostMapping("/add")
-    public ResponseEntity<Address> addAddress(Authentication auth,
-                                              @RequestBody AddressRequest req) {
-        return ResponseEntity.ok(addressService.addAddress(auth.getName(), req));
+    public ResponseEntity<Address> addAddress(@RequestBody AddressRequest req) {
+        return ResponseEntity.ok(addressService.addAddress(currentUser.get(), req));
     }
 
     @DeleteMapping("/delete/{addressId}")
-    public ResponseEntity<String> deleteAddress(Authentication auth,
-                                                @PathVariable Long addressId) {
-        addressService.deleteAddress(auth.getName(), addressId);
+    public ResponseEntity<String> deleteAddress(@PathVariable Long addressId) {
+        addressService.deleteAddress(currentUser.getReference(), addressId);
         return ResponseEntity.ok("Address deleted");
     }
 }
\ No newline at end of file
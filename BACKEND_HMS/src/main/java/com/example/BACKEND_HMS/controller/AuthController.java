@@ -7,6 +7,7 @@ import com.example.BACKEND_HMS.DTO.AuthResponse;
 import com.example.BACKEND_HMS.DTO.LoginRequest;
 import com.example.BACKEND_HMS.DTO.RegisterRequest;
 import com.example.BACKEND_HMS.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -29,11 +30,13 @@ public class AuthController {
     }
 
     // ================= LOGIN =================
+    // Proxy ke peeche getRemoteAddr() asli client tabhi deta hai jab server.forward-headers-strategy set ho
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(
-            @Valid @RequestBody LoginRequest request
+            @Valid @RequestBody LoginRequest request,
+            HttpServletRequest httpRequest
     ) {
-        return ResponseEntity.ok(authService.login(request));
+        return ResponseEntity.ok(authService.login(request, httpRequest.getRemoteAddr()));
     }
 
 
@@ -1,11 +1,12 @@
 package com.example.BACKEND_HMS.controller;
 
 import com.example.BACKEND_HMS.DTO.AddToCartRequest;
+import com.example.BACKEND_HMS.DTO.CartBatchRequest;
 import com.example.BACKEND_HMS.DTO.CartDTO;
+import com.example.BACKEND_HMS.jwtfilter.CurrentUser;
 import com.example.BACKEND_HMS.service.CartService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -14,28 +15,34 @@ import org.springframework.web.bind.annotation.*;
 public class CartController {
 
     private final CartService cartService;
+    private final CurrentUser currentUser;
 
     @GetMapping
-    public ResponseEntity<CartDTO> getCart(Authentication auth) {
-        return ResponseEntity.ok(cartService.getCart(auth.getName()));
+    public ResponseEntity<CartDTO> getCart() {
+        return ResponseEntity.ok(cartService.getCart(currentUser.getReference()));
     }
 
     @PostMapping("/add")
-    public ResponseEntity<CartDTO> addToCart(Authentication auth,
-                                             @RequestBody AddToCartRequest req) {
-        return ResponseEntity.ok(cartService.addToCart(auth.getName(), req));
+    public ResponseEntity<CartDTO> addToCart(@RequestBody AddToCartRequest req) {
+        return ResponseEntity.ok(cartService.addToCart(currentUser.getReference(), req));
     }
 
     @PutMapping("/update/{cartItemId}")
-    public ResponseEntity<CartDTO> updateQuantity(Authentication auth,
-                                                  @PathVariable Long cartItemId,
+    public ResponseEntity<CartDTO> updateQuantity(@PathVariable Long cartItemId,
                                                   @RequestParam Integer quantity) {
-        return ResponseEntity.ok(cartService.updateQuantity(auth.getName(), cartItemId, quantity));
+        return ResponseEntity.ok(cartService.updateQuantity(currentUser.getReference(), cartItemId, quantity));
     }
 
     @DeleteMapping("/remove/{cartItemId}")
-    public ResponseEntity<CartDTO> removeItem(Authentication auth,
-                                              @PathVariable Long cartItemId) {
-        return ResponseEntity.ok(cartService.removeItem(auth.getName(), cartItemId));
+    public ResponseEntity<CartDTO> removeItem(@PathVariable Long cartItemId) {
+        return ResponseEntity.ok(cartService.removeItem(currentUser.getReference(), cartItemId));
     }
-}
\ No newline at end of file
+
+    // POST /api/cart/batch
+    // { "operations": [ {"op":"ADD","productId":5,"quantity":2}, {"op":"SET","cartItemId":9,"quantity":0} ] }
+    // Sab ek saath lagte hain ya koi nahi - ek round trip, ek recomputed cart
+    @PostMapping("/batch")
+    public ResponseEntity<CartDTO> applyBatch(@RequestBody CartBatchRequest req) {
+        return ResponseEntity.ok(cartService.applyBatch(currentUser.getReference(), req));
+    }
+}
@@ -2,10 +2,16 @@ package com.example.BACKEND_HMS.controller;
 
 import com.example.BACKEND_HMS.DTO.CategoryRequestDTO;
 import com.example.BACKEND_HMS.DTO.CategoryResponseDTO;
+import com.example.BACKEND_HMS.DTO.CategoryTreeDTO;
+import com.example.BACKEND_HMS.DTO.MediaUploadJobDTO;
+import com.example.BACKEND_HMS.service.CatalogVersionService;
 import com.example.BACKEND_HMS.service.CategoryService;
+import com.example.BACKEND_HMS.service.CategoryTreeService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -17,6 +23,8 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CategoryTreeService categoryTreeService;
+    private final CatalogVersionService catalogVersionService;
 
     // POST /api/categories/add
     // Body: { "name": "Fruits", "description": "Fresh fruits", "isActive": true }
@@ -26,17 +34,36 @@ public class CategoryController {
     }
 
     // POST /api/categories/{id}/upload-image  (multipart - only for image)
+    // 202 + job handle turant; upload background mein, GET /api/media/jobs/{jobId} se status / url
     @PostMapping("/{id}/upload-image")
-    public ResponseEntity<CategoryResponseDTO> uploadImage(
+    public ResponseEntity<MediaUploadJobDTO> uploadImage(
             @PathVariable Long id,
             @RequestParam("image") MultipartFile image) throws IOException {
-        return ResponseEntity.ok(categoryService.uploadImage(id, image));
+        return ResponseEntity.accepted().body(categoryService.uploadImage(id, image));
     }
 
     // GET /api/categories/all
+    // ETag / Last-Modified ke saath - If-None-Match match hua toh 304, DB aur JSON dono skip
     @GetMapping("/all")
-    public ResponseEntity<List<CategoryResponseDTO>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<List<CategoryResponseDTO>> getAllCategories(WebRequest request) {
+        if (request.checkNotModified(catalogVersionService.etag(), catalogVersionService.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(categoryService.getAllCategories());
+    }
+
+    // GET /api/categories/tree
+    // Navigation menu: category → subcategories → available product count, memory se
+    @GetMapping("/tree")
+    public ResponseEntity<List<CategoryTreeDTO>> getCategoryTree(WebRequest request) {
+        if (request.checkNotModified(catalogVersionService.etag(), catalogVersionService.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(categoryTreeService.getTree());
     }
 
     // GET /api/categories/{id}
@@ -56,14 +83,14 @@ public class CategoryController {
 
     // DELETE /api/categories/delete/{id}
     @DeleteMapping("/delete/{id}")
-    public ResponseEntity<String> deleteCategoryById(@PathVariable Long id) throws IOException {
+    public ResponseEntity<String> deleteCategoryById(@PathVariable Long id) {
         categoryService.deleteCategoryById(id);
         return ResponseEntity.ok("Category deleted successfully");
     }
 
     // DELETE /api/categories/delete-all
     @DeleteMapping("/delete-all")
-    public ResponseEntity<String> deleteAllCategories() throws IOException {
+    public ResponseEntity<String> deleteAllCategories() {
         categoryService.deleteAllCategories();
         return ResponseEntity.ok("All categories deleted successfully");
     }
@@ -0,0 +1,47 @@
+package com.example.BACKEND_HMS.controller;
+
+import com.example.BACKEND_HMS.service.MediaDerivativeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/media/derived")
+@RequiredArgsConstructor
+public class DerivedImageController {
+
+    private final MediaDerivativeService mediaDerivativeService;
+
+    // GET /media/derived/{sha256}/thumb.jpg  |  /media/derived/{sha256}/list.jpg
+    // URL content hash se bana hai - content kabhi nahi badlega, toh immutable cache.
+    // Derivative abhi disk pe nahi toh original pe 302 (cache nahi) - banna background mein
+    @GetMapping("/{sha256}/{variant}.jpg")
+    public ResponseEntity<Resource> getDerivative(@PathVariable String sha256,
+                                                  @PathVariable String variant) {
+        MediaDerivativeService.Variant size = MediaDerivativeService.Variant.fromKey(variant);
+        Optional<Path> cached = mediaDerivativeService.find(sha256, size);
+        if (cached.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FOUND)
+                    .cacheControl(CacheControl.noStore())
+                    .location(URI.create(mediaDerivativeService.regenerate(sha256)))
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .contentType(MediaType.IMAGE_JPEG)
+                .body(new FileSystemResource(cached.get()));
+    }
+}
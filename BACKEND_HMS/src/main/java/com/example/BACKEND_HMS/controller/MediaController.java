@@ -0,0 +1,26 @@
+package com.example.BACKEND_HMS.controller;
+
+import com.example.BACKEND_HMS.DTO.MediaUploadJobDTO;
+import com.example.BACKEND_HMS.service.MediaUploadService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/media")
+@RequiredArgsConstructor
+public class MediaController {
+
+    private final MediaUploadService mediaUploadService;
+
+    // GET /api/media/jobs/{jobId}
+    // upload-image endpoints ka job handle - status DONE hone par url milta hai (sirf uploader / ADMIN)
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<MediaUploadJobDTO> getUploadJob(@PathVariable Long jobId, Authentication authentication) {
+        return ResponseEntity.ok(mediaUploadService.getJob(jobId, authentication));
+    }
+}
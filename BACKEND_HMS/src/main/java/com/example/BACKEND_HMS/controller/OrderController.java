@@ -2,12 +2,19 @@ package com.example.BACKEND_HMS.controller;
 
 import com.example.BACKEND_HMS.DTO.OrderDTO;
 import com.example.BACKEND_HMS.DTO.PlaceOrderRequest;
+import com.example.BACKEND_HMS.DTO.StockConflictDTO;
 import com.example.BACKEND_HMS.Entity.OrderStatus;
+import com.example.BACKEND_HMS.jwtfilter.CurrentUser;
 import com.example.BACKEND_HMS.service.OrderService;
+import com.example.BACKEND_HMS.service.StockConflictException;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -16,31 +23,32 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final CurrentUser currentUser;
 
     // User - order place karo
     @PostMapping("/place")
-    public ResponseEntity<OrderDTO> placeOrder(Authentication auth,
-                                               @RequestBody PlaceOrderRequest req) {
-        return ResponseEntity.ok(orderService.placeOrder(auth.getName(), req));
+    public ResponseEntity<OrderDTO> placeOrder(@RequestBody PlaceOrderRequest req) {
+        return ResponseEntity.ok(orderService.placeOrder(currentUser.getReference(), req));
     }
 
-    // User - apne orders dekho
+    // User - apne orders dekho (JSON array stream hota hai)
     @GetMapping("/my-orders")
-    public ResponseEntity<List<OrderDTO>> getMyOrders(Authentication auth) {
-        return ResponseEntity.ok(orderService.getMyOrders(auth.getName()));
+    public void getMyOrders(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        orderService.streamMyOrders(currentUser.getReference(), response.getOutputStream());
     }
 
     // User - single order detail
     @GetMapping("/{orderId}")
-    public ResponseEntity<OrderDTO> getOrderById(Authentication auth,
-                                                 @PathVariable Long orderId) {
-        return ResponseEntity.ok(orderService.getOrderById(auth.getName(), orderId));
+    public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long orderId) {
+        return ResponseEntity.ok(orderService.getOrderById(currentUser.getReference(), orderId));
     }
 
-    // Admin - sab orders dekho
+    // Admin - sab orders dekho (JSON array stream hota hai)
     @GetMapping("/admin/all")
-    public ResponseEntity<List<OrderDTO>> getAllOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public void getAllOrders(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        orderService.streamAllOrders(response.getOutputStream());
     }
 
     // Admin - order status update karo
@@ -49,4 +57,10 @@ public class OrderController {
                                                  @RequestParam OrderStatus status) {
         return ResponseEntity.ok(orderService.updateOrderStatus(orderId, status));
     }
-}
\ No newline at end of file
+
+    // Checkout pe stock kam pada - kaunsi lines, kitna maanga, kitna bacha
+    @ExceptionHandler(StockConflictException.class)
+    public ResponseEntity<List<StockConflictDTO>> stockConflict(StockConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getConflicts());
+    }
+}
@@ -1,11 +1,30 @@
 package com.example.BACKEND_HMS.controller;
 
+import com.example.BACKEND_HMS.DTO.MediaUploadJobDTO;
+import com.example.BACKEND_HMS.DTO.ProductBulkUpdateResultDTO;
+import com.example.BACKEND_HMS.DTO.ProductDeltaDTO;
+import com.example.BACKEND_HMS.DTO.ProductFacetRequest;
+import com.example.BACKEND_HMS.DTO.ProductFacetResultDTO;
+import com.example.BACKEND_HMS.DTO.ProductImportResultDTO;
+import com.example.BACKEND_HMS.DTO.ProductPageDTO;
+import com.example.BACKEND_HMS.DTO.ProductPageRequest;
 import com.example.BACKEND_HMS.DTO.ProductRequestDTO;
 import com.example.BACKEND_HMS.DTO.ProductResponseDTO;
+import com.example.BACKEND_HMS.service.CatalogVersionService;
+import com.example.BACKEND_HMS.service.ProductBulkUpdateService;
+import com.example.BACKEND_HMS.service.ProductFacetService;
+import com.example.BACKEND_HMS.service.ProductImportService;
+import com.example.BACKEND_HMS.service.ProductSearchService;
 import com.example.BACKEND_HMS.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -17,6 +36,11 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final CatalogVersionService catalogVersionService;
+    private final ProductSearchService productSearchService;
+    private final ProductFacetService productFacetService;
+    private final ProductImportService productImportService;
+    private final ProductBulkUpdateService productBulkUpdateService;
 
     // POST /api/products/add
     // Body: { "name": "Apple", "description": "Fresh apple", "price": 50.0,
@@ -27,18 +51,66 @@ public class ProductController {
         return ResponseEntity.ok(productService.addProduct(dto));
     }
 
+    // POST /api/products/import
+    // Content-Type: text/csv (header row: name,description,price,stockQuantity,unit,brand,isAvailable,subCategoryId)
+    //           ya application/x-ndjson (har line ek ProductRequestDTO JSON)
+    // Body stream hota hai - bade supplier catalogs bhi memory mein buffer nahi hote
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ProductImportResultDTO> importProducts(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(productImportService.importProducts(
+                request.getInputStream(),
+                ProductImportService.Format.fromContentType(request.getContentType())));
+    }
+
     // POST /api/products/{id}/upload-image  (multipart - only for image)
+    // 202 + job handle turant; upload background mein, GET /api/media/jobs/{jobId} se status / url
     @PostMapping("/{id}/upload-image")
-    public ResponseEntity<ProductResponseDTO> uploadImage(
+    public ResponseEntity<MediaUploadJobDTO> uploadImage(
             @PathVariable Long id,
             @RequestParam("image") MultipartFile image) throws IOException {
-        return ResponseEntity.ok(productService.uploadImage(id, image));
+        return ResponseEntity.accepted().body(productService.uploadImage(id, image));
     }
 
     // GET /api/products/all
+    // ETag / Last-Modified ke saath - If-None-Match match hua toh 304, DB aur JSON dono skip
+    // Warna JSON array stream hota hai - pehla product turant, poori list memory mein nahi
     @GetMapping("/all")
-    public ResponseEntity<List<ProductResponseDTO>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public void getAllProducts(WebRequest request, HttpServletResponse response) throws IOException {
+        if (request.checkNotModified(catalogVersionService.etag(), catalogVersionService.lastModified())) {
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        productService.streamAllProducts(response.getOutputStream());
+    }
+
+    // GET /api/products/page?size=20&sort=updated|price&cursor=...
+    //     &subCategoryId=1&categoryId=1&brand=FreshFarm&minPrice=10&maxPrice=100&isAvailable=true
+    // Response ka nextCursor agle page ke liye bhejo
+    @GetMapping("/page")
+    public ResponseEntity<ProductPageDTO> getProductPage(@ModelAttribute ProductPageRequest req) {
+        return ResponseEntity.ok(productService.getProductPage(req));
+    }
+
+    // GET /api/products/search?q=aple&limit=20   (typo tolerant, ranked)
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductResponseDTO>> search(@RequestParam("q") String query,
+                                                           @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productSearchService.search(query, limit));
+    }
+
+    // GET /api/products/suggest?q=app&limit=8   (autocomplete - product names)
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggest(@RequestParam("q") String prefix,
+                                                @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productSearchService.suggest(prefix, limit));
+    }
+
+    // GET /api/products/facets?brand=FreshFarm&brand=Amul&unit=kg&priceBand=0-50&isAvailable=true&page=0&size=20
+    // Matching page + har facet ke counts
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetResultDTO> facets(@ModelAttribute ProductFacetRequest req) {
+        return ResponseEntity.ok(productFacetService.search(req));
     }
 
     // GET /api/products/{id}
@@ -56,16 +128,24 @@ public class ProductController {
         return ResponseEntity.ok(productService.updateProduct(id, dto));
     }
 
+    // PUT /api/products/bulk-update
+    // Body: [ { "productId": 1, "price": 45.0 }, { "productId": 2, "stockQuantity": 0, "isAvailable": false } ]
+    // Sirf diye gaye fields badalte hain; not-found ids aur galat items response mein
+    @PutMapping("/bulk-update")
+    public ResponseEntity<ProductBulkUpdateResultDTO> bulkUpdate(@RequestBody List<ProductDeltaDTO> updates) {
+        return ResponseEntity.ok(productBulkUpdateService.apply(updates));
+    }
+
     // DELETE /api/products/delete/{id}
     @DeleteMapping("/delete/{id}")
-    public ResponseEntity<String> deleteProductById(@PathVariable Long id) throws IOException {
+    public ResponseEntity<String> deleteProductById(@PathVariable Long id) {
         productService.deleteProductById(id);
         return ResponseEntity.ok("Product deleted successfully");
     }
 
     // DELETE /api/products/delete-all
     @DeleteMapping("/delete-all")
-    public ResponseEntity<String> deleteAllProducts() throws IOException {
+    public ResponseEntity<String> deleteAllProducts() {
         productService.deleteAllProducts();
         return ResponseEntity.ok("All products deleted successfully");
     }
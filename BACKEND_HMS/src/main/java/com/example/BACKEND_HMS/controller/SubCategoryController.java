@@ -1,11 +1,15 @@
 package com.example.BACKEND_HMS.controller;
 
+import com.example.BACKEND_HMS.DTO.MediaUploadJobDTO;
 import com.example.BACKEND_HMS.DTO.SubCategoryRequestDTO;
 import com.example.BACKEND_HMS.DTO.SubCategoryResponseDTO;
+import com.example.BACKEND_HMS.service.CatalogVersionService;
 import com.example.BACKEND_HMS.service.SubCategoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -17,6 +21,7 @@ import java.util.List;
 public class SubCategoryController {
 
     private final SubCategoryService subCategoryService;
+    private final CatalogVersionService catalogVersionService;
 
     // POST /api/subcategories/add
     // Body: { "name": "Mango", "isActive": true, "categoryId": 1 }
@@ -26,17 +31,24 @@ public class SubCategoryController {
     }
 
     // POST /api/subcategories/{id}/upload-image  (multipart - only for image)
+    // 202 + job handle turant; upload background mein, GET /api/media/jobs/{jobId} se status / url
     @PostMapping("/{id}/upload-image")
-    public ResponseEntity<SubCategoryResponseDTO> uploadImage(
+    public ResponseEntity<MediaUploadJobDTO> uploadImage(
             @PathVariable Long id,
             @RequestParam("image") MultipartFile image) throws IOException {
-        return ResponseEntity.ok(subCategoryService.uploadImage(id, image));
+        return ResponseEntity.accepted().body(subCategoryService.uploadImage(id, image));
     }
 
     // GET /api/subcategories/all
+    // ETag / Last-Modified ke saath - If-None-Match match hua toh 304, DB aur JSON dono skip
     @GetMapping("/all")
-    public ResponseEntity<List<SubCategoryResponseDTO>> getAllSubCategories() {
-        return ResponseEntity.ok(subCategoryService.getAllSubCategories());
+    public ResponseEntity<List<SubCategoryResponseDTO>> getAllSubCategories(WebRequest request) {
+        if (request.checkNotModified(catalogVersionService.etag(), catalogVersionService.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(subCategoryService.getAllSubCategories());
     }
 
     // GET /api/subcategories/{id}
@@ -56,14 +68,14 @@ public class SubCategoryController {
 
     // DELETE /api/subcategories/delete/{id}
     @DeleteMapping("/delete/{id}")
-    public ResponseEntity<String> deleteSubCategoryById(@PathVariable Long id) throws IOException {
+    public ResponseEntity<String> deleteSubCategoryById(@PathVariable Long id) {
         subCategoryService.deleteSubCategoryById(id);
         return ResponseEntity.ok("SubCategory deleted successfully");
     }
 
     // DELETE /api/subcategories/delete-all
     @DeleteMapping("/delete-all")
-    public ResponseEntity<String> deleteAllSubCategories() throws IOException {
+    public ResponseEntity<String> deleteAllSubCategories() {
         subCategoryService.deleteAllSubCategories();
         return ResponseEntity.ok("All SubCategories deleted successfully");
     }
@@ -0,0 +1,26 @@
+package com.example.BACKEND_HMS.controller;
+
+import com.example.BACKEND_HMS.DTO.CatalogSyncDTO;
+import com.example.BACKEND_HMS.service.CatalogSyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final CatalogSyncService catalogSyncService;
+
+    // GET /api/sync?since=1718000000000
+    // Pichli response ka watermark bhejo - sirf badle hue + deleted ids aate hain.
+    // since nahi diya (pehli baar) → poora catalog, fullResync = true
+    @GetMapping
+    public ResponseEntity<CatalogSyncDTO> sync(@RequestParam(required = false) Long since) {
+        return ResponseEntity.ok(catalogSyncService.changesSince(since));
+    }
+}
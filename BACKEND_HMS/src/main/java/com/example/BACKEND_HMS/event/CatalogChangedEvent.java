@@ -0,0 +1,41 @@
+package com.example.BACKEND_HMS.event;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Catalog (category / subcategory / product) mein kuch bhi badla - services publish karti hain,
+ * version stamp, caches, indexes waghera sunte hain.
+ * ids empty → us kind ke saare rows (jaise delete-all).
+ */
+public record CatalogChangedEvent(Kind kind, Action action, List<Long> ids) {
+
+    public enum Kind { CATEGORY, SUB_CATEGORY, PRODUCT }
+
+    public enum Action { UPSERT, DELETE }
+
+    public static CatalogChangedEvent upsert(Kind kind, Long id) {
+        return new CatalogChangedEvent(kind, Action.UPSERT, List.of(id));
+    }
+
+    public static CatalogChangedEvent upsert(Kind kind, Collection<Long> ids) {
+        return new CatalogChangedEvent(kind, Action.UPSERT, List.copyOf(ids));
+    }
+
+    // Bulk import jaisi cheezein - ids ki list bhejne ke bajaye "sab dobara padho"
+    public static CatalogChangedEvent upsertAll(Kind kind) {
+        return new CatalogChangedEvent(kind, Action.UPSERT, List.of());
+    }
+
+    public static CatalogChangedEvent delete(Kind kind, Long id) {
+        return new CatalogChangedEvent(kind, Action.DELETE, List.of(id));
+    }
+
+    public static CatalogChangedEvent deleteAll(Kind kind) {
+        return new CatalogChangedEvent(kind, Action.DELETE, List.of());
+    }
+
+    public boolean affectsAll() {
+        return ids.isEmpty();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.BACKEND_HMS.jwtfilter;
+
+import com.example.BACKEND_HMS.Entity.User;
+import com.example.BACKEND_HMS.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * Har request ke liye ek baar banta hai, authenticated principal se.
+ * Services ko email string ki jagah yeh milta hai - user id claims se aati hai,
+ * isliye zyada tar cart / order calls mein user ke liye koi extra query nahi lagti.
+ *
+ *  getId()        → principal se, DB hit nahi (JwtPrincipal ho toh)
+ *  getReference() → lazy JPA reference, sirf id chahiye (FK / where user = ?) toh kaafi hai
+ *  get()          → poora User entity, pehli baar maangne pe hi load
+ */
+@Component
+@RequestScope
+@RequiredArgsConstructor
+public class CurrentUser {
+
+    private final UserRepository userRepository;
+
+    private Long id;
+    private User reference;
+    private User loaded;
+
+    public String getEmail() {
+        return authentication().getName();
+    }
+
+    public Long getId() {
+        if (id == null) {
+            Object principal = authentication().getPrincipal();
+            if (principal instanceof JwtPrincipal jwtPrincipal && jwtPrincipal.userId() != null) {
+                id = jwtPrincipal.userId();
+            } else if (principal instanceof User user) {
+                loaded = user;
+                id = user.getId();
+            } else {
+                id = get().getId();
+            }
+        }
+        return id;
+    }
+
+    public User getReference() {
+        if (loaded != null) return loaded;
+        if (reference == null) reference = userRepository.getReferenceById(getId());
+        return reference;
+    }
+
+    public User get() {
+        if (loaded == null) {
+            loaded = userRepository.findByEmail(getEmail())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+        }
+        return loaded;
+    }
+
+    private Authentication authentication() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated())
+            throw new AuthenticationCredentialsNotFoundException("No authenticated user");
+        return auth;
+    }
+}
@@ -2,18 +2,23 @@ package com.example.BACKEND_HMS.jwtfilter;
 
 
 
+import com.example.BACKEND_HMS.Entity.Role;
+import com.example.BACKEND_HMS.service.UserCacheService;
 import com.example.BACKEND_HMS.utils.JwtUtil;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -26,6 +31,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final UserCacheService userCacheService;
+
+    // true  → principal claims se banta hai, user check cached snapshot se (no DB per request)
+    // false → purana tarika, har request pe loadUserByUsername
+    @Value("${jwt.claims-auth.enabled:true}")
+    private boolean claimsAuthEnabled;
 
     @Override
     protected void doFilterInternal(
@@ -36,6 +47,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
+        final Claims claims;
         final String userEmail;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -44,12 +56,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        userEmail = jwtUtil.extractUsername(jwt);
+        // Ek hi parse - username aur expiry dono isi claims se
+        claims = jwtUtil.verify(jwt);
+        userEmail = claims.getSubject();
 
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            UserDetails userDetails = claimsAuthEnabled
+                    ? principalFromClaims(claims)
+                    : this.userDetailsService.loadUserByUsername(userEmail);
 
-            if (jwtUtil.isTokenValid(jwt, userDetails)) {
+            if (userDetails != null && jwtUtil.isTokenValid(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -63,4 +79,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    // Disabled user, deleted user ya badla hua role → null (request unauthenticated rahegi)
+    private JwtPrincipal principalFromClaims(Claims claims) {
+        UserCacheService.UserSnapshot user;
+        try {
+            user = userCacheService.get(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+
+        String roleClaim = claims.get("role", String.class);
+        Role role = roleClaim != null ? Role.valueOf(roleClaim) : user.role();
+        if (!user.enabled() || role != user.role()) return null;
+
+        Number userIdClaim = claims.get("userId", Number.class);
+        Long userId = userIdClaim != null ? userIdClaim.longValue() : user.id();
+        return new JwtPrincipal(userId, user.email(), role);
+    }
+}
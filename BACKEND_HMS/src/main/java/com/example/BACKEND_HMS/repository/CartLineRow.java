@@ -0,0 +1,15 @@
+package com.example.BACKEND_HMS.repository;
+
+import java.time.LocalDateTime;
+
+// Cart load ki ek row - cart × item × product. Khaali cart → item / product columns null
+public record CartLineRow(Long cartId,
+                          Long cartItemId,
+                          Long productId,
+                          String productName,
+                          String productUnit,
+                          String imageUrl,
+                          Integer quantity,
+                          Double priceAtTime,
+                          LocalDateTime addedAt) {
+}
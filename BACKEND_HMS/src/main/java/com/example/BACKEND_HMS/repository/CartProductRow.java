@@ -0,0 +1,13 @@
+package com.example.BACKEND_HMS.repository;
+
+import java.math.BigDecimal;
+
+// Cart ke liye product ka chhota projection - entity + subCategory / category joins nahi
+public record CartProductRow(Long productId,
+                             String name,
+                             String unit,
+                             String imageUrl,
+                             BigDecimal price,
+                             Integer stockQuantity,
+                             Boolean isAvailable) {
+}
@@ -3,8 +3,20 @@ package com.example.BACKEND_HMS.repository;
 import com.example.BACKEND_HMS.Entity.Cart;
 import com.example.BACKEND_HMS.Entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUser(User user);
-}
\ No newline at end of file
+
+    // Poora cart ek SELECT mein (carts.user_id unique + idx_cart_items_cart_id) - entities,
+    // Product ke eager subCategory / category joins kuch nahi. Cart hi nahi → koi row nahi
+    @Query("select new com.example.BACKEND_HMS.repository.CartLineRow("
+            + "c.cartId, i.cartItemId, p.Product_id, p.name, p.unit, p.imageUrl, i.quantity, i.priceAtTime, i.addedAt) "
+            + "from Cart c left join c.cartItems i left join i.product p "
+            + "where c.user.id = :userId order by i.cartItemId")
+    List<CartLineRow> findLinesByUserId(@Param("userId") Long userId);
+}
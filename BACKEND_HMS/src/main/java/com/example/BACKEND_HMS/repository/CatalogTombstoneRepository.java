@@ -0,0 +1,75 @@
+package com.example.BACKEND_HMS.repository;
+
+import com.example.BACKEND_HMS.Entity.CatalogTombstone;
+import com.example.BACKEND_HMS.event.CatalogChangedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Set-based deletes ke saath tombstones bhi set-based - INSERT ... SELECT, delete se pehle
+ * usi transaction mein. Rows load nahi hoti.
+ */
+public interface CatalogTombstoneRepository extends JpaRepository<CatalogTombstone, Long> {
+
+    @Query("select t from CatalogTombstone t where t.deletedAt > :since order by t.deletedAt")
+    List<CatalogTombstone> findDeletedAfter(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("delete from CatalogTombstone t where t.deletedAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+
+    // ── Products ──
+    @Modifying
+    @Query(value = "insert into catalog_tombstones (kind, entity_id, deleted_at) " +
+            "select 'PRODUCT', product_id, :now from products where product_id = :id", nativeQuery = true)
+    int tombstoneProduct(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "insert into catalog_tombstones (kind, entity_id, deleted_at) " +
+            "select 'PRODUCT', product_id, :now from products", nativeQuery = true)
+    int tombstoneAllProducts(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "insert into catalog_tombstones (kind, entity_id, deleted_at) " +
+            "select 'PRODUCT', product_id, :now from products where sub_category_id = :subCategoryId", nativeQuery = true)
+    int tombstoneProductsBySubCategory(@Param("subCategoryId") Long subCategoryId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "insert into catalog_tombstones (kind, entity_id, deleted_at) " +
+            "select 'PRODUCT', p.product_id, :now from products p " +
+            "join sub_categories s on s.sub_category_id = p.sub_category_id " +
+            "where s.category_id = :categoryId", nativeQuery = true)
+    int tombstoneProductsByCategory(@Param("categoryId") Long categoryId, @Param("now") LocalDateTime now);
+
+    // ── SubCategories ──
+    @Modifying
+    @Query(value = "insert into catalog_tombstones (kind, entity_id, deleted_at) " +
+            "select 'SUB_CATEGORY', sub_category_id, :now from sub_categories where sub_category_id = :id", nativeQuery = true)
+    int tombstoneSubCategory(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "insert into catalog_tombstones (kind, entity_id, deleted_at) " +
+            "select 'SUB_CATEGORY', sub_category_id, :now from sub_categories", nativeQuery = true)
+    int tombstoneAllSubCategories(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "insert into catalog_tombstones (kind, entity_id, deleted_at) " +
+            "select 'SUB_CATEGORY', sub_category_id, :now from sub_categories where category_id = :categoryId", nativeQuery = true)
+    int tombstoneSubCategoriesByCategory(@Param("categoryId") Long categoryId, @Param("now") LocalDateTime now);
+
+    // ── Categories ──
+    @Modifying
+    @Query(value = "insert into catalog_tombstones (kind, entity_id, deleted_at) " +
+            "select 'CATEGORY', category_id, :now from categories where category_id = :id", nativeQuery = true)
+    int tombstoneCategory(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "insert into catalog_tombstones (kind, entity_id, deleted_at) " +
+            "select 'CATEGORY', category_id, :now from categories", nativeQuery = true)
+    int tombstoneAllCategories(@Param("now") LocalDateTime now);
+}
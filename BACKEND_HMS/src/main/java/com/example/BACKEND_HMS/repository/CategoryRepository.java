@@ -2,9 +2,39 @@ package com.example.BACKEND_HMS.repository;
 
 
 import com.example.BACKEND_HMS.Entity.Category;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CategoryRepository  extends JpaRepository<Category,Long> {
+
+    // Poora navigation tree ek hi query mein - active category → active subcategory → available products ka count
+    @Query("select new com.example.BACKEND_HMS.repository.CategoryTreeRow(" +
+            "c.Category_id, c.name, c.imageUrl, s.SubCategory_id, s.name, s.imageUrl, count(p)) " +
+            "from Category c " +
+            "left join c.subCategories s on coalesce(s.isActive, true) = true " +
+            "left join s.products p on p.isAvailable = true " +
+            "where coalesce(c.isActive, true) = true " +
+            "group by c.Category_id, c.name, c.imageUrl, s.SubCategory_id, s.name, s.imageUrl " +
+            "order by c.name, s.name")
+    List<CategoryTreeRow> findTreeRows();
+
+    // Image attach - purana URL padhna aur naya lagana ek row lock ke andar
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Category c where c.Category_id = :id")
+    Optional<Category> findByIdForUpdate(@Param("id") Long id);
+
+    // Delta sync - idx_categories_updated_at
+    List<Category> findByUpdatedAtAfter(LocalDateTime since);
+
+    @Query("select c.imageUrl from Category c where c.imageUrl is not null")
+    List<String> findAllImageUrls();
 }
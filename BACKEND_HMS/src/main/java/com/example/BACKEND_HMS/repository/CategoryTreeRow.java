@@ -0,0 +1,11 @@
+package com.example.BACKEND_HMS.repository;
+
+// Category tree aggregate query ki ek row - category × subcategory, available products ka count
+public record CategoryTreeRow(Long categoryId,
+                              String categoryName,
+                              String categoryImageUrl,
+                              Long subCategoryId,
+                              String subCategoryName,
+                              String subCategoryImageUrl,
+                              Long availableProducts) {
+}
@@ -0,0 +1,41 @@
+package com.example.BACKEND_HMS.repository;
+
+import com.example.BACKEND_HMS.Entity.MediaAsset;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Ref counts atomic UPDATEs se - read-modify-write nahi, toh concurrent uploads / deletes safe
+public interface MediaAssetRepository extends JpaRepository<MediaAsset, Long> {
+
+    @Query("select a.url from MediaAsset a where a.sha256 = :sha256")
+    Optional<String> findUrlBySha256(@Param("sha256") String sha256);
+
+    boolean existsByUrl(String url);
+
+    // Purge worker - storage delete isi lock ke andar, retain is row pe rukta hai
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from MediaAsset a where a.url = :url")
+    Optional<MediaAsset> findByUrlForUpdate(@Param("url") String url);
+
+    @Modifying
+    @Query("update MediaAsset a set a.refCount = a.refCount + 1 where a.sha256 = :sha256")
+    int retain(@Param("sha256") String sha256);
+
+    @Query("select a.url from MediaAsset a where a.url in :urls")
+    List<String> findTrackedUrls(@Param("urls") Collection<String> urls);
+
+    @Modifying
+    @Query("update MediaAsset a set a.refCount = a.refCount - :by where a.url in :urls")
+    int release(@Param("urls") Collection<String> urls, @Param("by") int by);
+
+    @Query("select a.url from MediaAsset a where a.url in :urls and a.refCount <= 0")
+    List<String> findUnreferencedUrls(@Param("urls") Collection<String> urls);
+}
@@ -3,11 +3,37 @@ package com.example.BACKEND_HMS.repository;
 import com.example.BACKEND_HMS.Entity.Order;
 import com.example.BACKEND_HMS.Entity.OrderStatus;
 import com.example.BACKEND_HMS.Entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByUserOrderByCreatedAtDesc(User user);
     List<Order> findByStatusOrderByCreatedAtDesc(OrderStatus status);
-    List<Order> findAllByOrderByCreatedAtDesc();
-}
\ No newline at end of file
+
+    // Streaming order lists - payment join mein; items har chunk ke liye fetchItems se ek query mein
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o from Order o left join fetch o.payment where o.user = :user order by o.createdAt desc")
+    Stream<Order> streamByUser(@Param("user") User user);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o from Order o left join fetch o.payment order by o.createdAt desc")
+    Stream<Order> streamAll();
+
+    // Already-loaded orders ke items (+ product) initialize karo - ek query per chunk
+    @Query("select distinct o from Order o left join fetch o.orderItems i left join fetch i.product " +
+            "where o in :orders")
+    List<Order> fetchItems(@Param("orders") Collection<Order> orders);
+}
@@ -1,9 +1,18 @@
 package com.example.BACKEND_HMS.repository;
 
 import com.example.BACKEND_HMS.Entity.Payment;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.Optional;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByOrder_OrderId(Long orderId);
-}
\ No newline at end of file
+
+    // Confirm / fail / hold expiry - ek order pe ek waqt mein ek hi, taaza status ke saath
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Payment p where p.order.orderId = :orderId")
+    Optional<Payment> findByOrderIdForUpdate(@Param("orderId") Long orderId);
+}
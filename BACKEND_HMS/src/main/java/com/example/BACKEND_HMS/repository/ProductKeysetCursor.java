@@ -0,0 +1,39 @@
+package com.example.BACKEND_HMS.repository;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset (seek) pagination ka cursor - last row ki sort key + id.
+ * Client ke liye opaque base64 string hai: "u|2024-01-01T10:00|42" ya "p|99.50|42".
+ */
+public record ProductKeysetCursor(Sort sort, LocalDateTime updatedAt, BigDecimal price, Long productId) {
+
+    public enum Sort { UPDATED, PRICE }
+
+    public static Sort parseSort(String sort) {
+        return "price".equalsIgnoreCase(sort) ? Sort.PRICE : Sort.UPDATED;
+    }
+
+    public String encode() {
+        String key = sort == Sort.PRICE ? "p|" + price.toPlainString() : "u|" + updatedAt;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((key + "|" + productId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductKeysetCursor decode(String cursor, Sort expectedSort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            Long id = Long.valueOf(parts[2]);
+            if ("p".equals(parts[0]) && expectedSort == Sort.PRICE)
+                return new ProductKeysetCursor(Sort.PRICE, null, new BigDecimal(parts[1]), id);
+            if ("u".equals(parts[0]) && expectedSort == Sort.UPDATED)
+                return new ProductKeysetCursor(Sort.UPDATED, LocalDateTime.parse(parts[1]), null, id);
+        } catch (RuntimeException ignored) {
+            // neeche wala error
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+}
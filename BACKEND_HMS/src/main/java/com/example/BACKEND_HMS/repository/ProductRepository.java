@@ -2,11 +2,83 @@ package com.example.BACKEND_HMS.repository;
 
 import com.example.BACKEND_HMS.Entity.Product;
 import com.example.BACKEND_HMS.Entity.SubCategory;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    // toDTO subCategory → category tak jaata hai, isliye dono ek hi join mein laao (N+1 nahi)
+    @Override
+    @EntityGraph(attributePaths = {"subCategory", "subCategory.category"})
+    List<Product> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"subCategory", "subCategory.category"})
+    Optional<Product> findById(Long id);
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+    // Image attach - purana URL padhna aur naya lagana ek row lock ke andar
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.Product_id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = {"subCategory", "subCategory.category"})
     List<Product> findBySubCategory(SubCategory subCategory);
+
+    @EntityGraph(attributePaths = {"subCategory", "subCategory.category"})
     List<Product> findByIsAvailableTrue();
-    List<Product> findByNameContainingIgnoreCase(String name);
-}
\ No newline at end of file
+
+    @Override
+    @EntityGraph(attributePaths = {"subCategory", "subCategory.category"})
+    List<Product> findAllById(Iterable<Long> ids);
+
+    // Batch cart mutation - saare referenced products ek IN query mein
+    @Query("select new com.example.BACKEND_HMS.repository.CartProductRow("
+            + "p.Product_id, p.name, p.unit, p.imageUrl, p.price, p.stockQuantity, p.isAvailable) "
+            + "from Product p where p.Product_id in :ids")
+    List<CartProductRow> findCartRows(@Param("ids") Collection<Long> ids);
+
+    // Delta sync - idx_products_updated_at_id
+    @EntityGraph(attributePaths = {"subCategory", "subCategory.category"})
+    List<Product> findByUpdatedAtAfter(LocalDateTime since);
+
+    // Streaming /all - DB cursor se rows aati hain (fetch size), poori list memory mein nahi
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Product p left join fetch p.subCategory s left join fetch s.category")
+    Stream<Product> streamAll();
+
+    // ── Set-based deletes (images pehle nikaal lo, purge queue ke liye) ──
+    @Query("select p.imageUrl from Product p where p.imageUrl is not null")
+    List<String> findAllImageUrls();
+
+    @Query("select p.imageUrl from Product p where p.subCategory.SubCategory_id = :subCategoryId and p.imageUrl is not null")
+    List<String> findImageUrlsBySubCategoryId(@Param("subCategoryId") Long subCategoryId);
+
+    @Query("select p.imageUrl from Product p where p.subCategory.category.Category_id = :categoryId and p.imageUrl is not null")
+    List<String> findImageUrlsByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Product p where p.subCategory.SubCategory_id = :subCategoryId")
+    int deleteBySubCategoryId(@Param("subCategoryId") Long subCategoryId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Product p where p.subCategory.SubCategory_id in " +
+            "(select s.SubCategory_id from SubCategory s where s.category.Category_id = :categoryId)")
+    int deleteByCategoryId(@Param("categoryId") Long categoryId);
+}
@@ -0,0 +1,12 @@
+package com.example.BACKEND_HMS.repository;
+
+import com.example.BACKEND_HMS.DTO.ProductPageRequest;
+import com.example.BACKEND_HMS.Entity.Product;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    // Filters + keyset seek, sirf "limit" rows (OFFSET nahi, isliye har page utna hi sasta)
+    List<Product> findPage(ProductPageRequest filter, ProductKeysetCursor after, int limit);
+}
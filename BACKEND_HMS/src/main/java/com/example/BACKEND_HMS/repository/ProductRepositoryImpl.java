@@ -0,0 +1,95 @@
+package com.example.BACKEND_HMS.repository;
+
+import com.example.BACKEND_HMS.DTO.ProductPageRequest;
+import com.example.BACKEND_HMS.Entity.Category;
+import com.example.BACKEND_HMS.Entity.Product;
+import com.example.BACKEND_HMS.Entity.SubCategory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Product> findPage(ProductPageRequest filter, ProductKeysetCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> product = query.from(Product.class);
+
+        // subCategory + category fetch join - toDTO ke liye extra select per row nahi
+        Fetch<Product, SubCategory> scFetch = product.fetch("subCategory", JoinType.LEFT);
+        Fetch<SubCategory, Category> cFetch = scFetch.fetch("category", JoinType.LEFT);
+        @SuppressWarnings("unchecked")
+        Join<Product, SubCategory> sc = (Join<Product, SubCategory>) scFetch;
+        @SuppressWarnings("unchecked")
+        Join<SubCategory, Category> c = (Join<SubCategory, Category>) cFetch;
+
+        List<Predicate> where = new ArrayList<>();
+
+        if (filter.getSubCategoryId() != null) {
+            where.add(cb.equal(sc.get("SubCategory_id"), filter.getSubCategoryId()));
+        }
+        if (filter.getCategoryId() != null) {
+            where.add(cb.equal(c.get("Category_id"), filter.getCategoryId()));
+        }
+        if (filter.getBrand() != null && !filter.getBrand().isBlank()) {
+            where.add(cb.equal(product.get("brand"), filter.getBrand()));
+        }
+        if (filter.getMinPrice() != null) {
+            where.add(cb.greaterThanOrEqualTo(product.get("price"), filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            where.add(cb.lessThanOrEqualTo(product.get("price"), filter.getMaxPrice()));
+        }
+        if (filter.getIsAvailable() != null) {
+            where.add(cb.equal(product.get("isAvailable"), filter.getIsAvailable()));
+        }
+
+        ProductKeysetCursor.Sort sort = ProductKeysetCursor.parseSort(filter.getSort());
+        Path<Long> id = product.get("Product_id");
+
+        if (sort == ProductKeysetCursor.Sort.PRICE) {
+            // price ASC, id ASC - bina price wale products is sort mein nahi aate
+            Path<BigDecimal> price = product.get("price");
+            where.add(cb.isNotNull(price));
+            if (after != null) {
+                where.add(cb.or(
+                        cb.greaterThan(price, after.price()),
+                        cb.and(cb.equal(price, after.price()), cb.greaterThan(id, after.productId()))
+                ));
+            }
+            query.orderBy(cb.asc(price), cb.asc(id));
+        } else {
+            // updatedAt DESC, id DESC - naye / abhi update hue pehle
+            Path<LocalDateTime> updatedAt = product.get("updatedAt");
+            where.add(cb.isNotNull(updatedAt));
+            if (after != null) {
+                where.add(cb.or(
+                        cb.lessThan(updatedAt, after.updatedAt()),
+                        cb.and(cb.equal(updatedAt, after.updatedAt()), cb.lessThan(id, after.productId()))
+                ));
+            }
+            query.orderBy(cb.desc(updatedAt), cb.desc(id));
+        }
+
+        query.select(product).where(where.toArray(new Predicate[0]));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
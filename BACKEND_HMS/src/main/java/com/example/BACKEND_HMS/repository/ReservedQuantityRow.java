@@ -0,0 +1,5 @@
+package com.example.BACKEND_HMS.repository;
+
+// Product pe kul kitna hold hai - startup pe in-memory counters isi se bharte hain
+public record ReservedQuantityRow(Long productId, Long quantity) {
+}
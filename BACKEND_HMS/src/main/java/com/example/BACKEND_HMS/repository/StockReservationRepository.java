@@ -0,0 +1,30 @@
+package com.example.BACKEND_HMS.repository;
+
+import com.example.BACKEND_HMS.Entity.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    List<StockReservation> findByOrderId(Long orderId);
+
+    // Delete count hi batata hai kaun jeeta - confirm aur expiry ek saath aaye toh sirf ek ko rows milti hain
+    @Modifying
+    @Query("delete from StockReservation r where r.orderId = :orderId")
+    int deleteByOrderId(@Param("orderId") Long orderId);
+
+    // orderId pe keyset - fail hua order agle page mein dobara nahi aata
+    @Query("select distinct r.orderId from StockReservation r where r.expiresAt < :now and r.orderId > :after "
+            + "order by r.orderId")
+    List<Long> findExpiredOrderIds(@Param("now") LocalDateTime now, @Param("after") Long after, Pageable pageable);
+
+    @Query("select new com.example.BACKEND_HMS.repository.ReservedQuantityRow(r.productId, sum(r.quantity)) "
+            + "from StockReservation r group by r.productId")
+    List<ReservedQuantityRow> sumByProduct();
+}
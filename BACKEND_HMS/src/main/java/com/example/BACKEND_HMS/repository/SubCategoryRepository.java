@@ -1,7 +1,54 @@
 package com.example.BACKEND_HMS.repository;
 
 import com.example.BACKEND_HMS.Entity.SubCategory;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 public interface SubCategoryRepository  extends JpaRepository<SubCategory, Long> {
+
+    // toDTO category ka naam bhi bhejta hai - ek hi join mein laao
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<SubCategory> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<SubCategory> findById(Long id);
+
+    // Image attach - purana URL padhna aur naya lagana ek row lock ke andar
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from SubCategory s where s.SubCategory_id = :id")
+    Optional<SubCategory> findByIdForUpdate(@Param("id") Long id);
+
+    // Delta sync - idx_sub_categories_updated_at
+    @EntityGraph(attributePaths = "category")
+    List<SubCategory> findByUpdatedAtAfter(LocalDateTime since);
+
+    // Bulk import rows ke subCategoryId validate karne ke liye - poori entities nahi chahiye
+    @Query("select s.SubCategory_id from SubCategory s")
+    List<Long> findAllIds();
+
+    // Category tree ke counts refresh: [subCategoryId, available products] - ek row per subcategory
+    @Query("select s.SubCategory_id, count(p) from SubCategory s join s.products p " +
+            "where p.isAvailable = true group by s.SubCategory_id")
+    List<Object[]> countAvailableProducts();
+
+    @Query("select s.imageUrl from SubCategory s where s.imageUrl is not null")
+    List<String> findAllImageUrls();
+
+    @Query("select s.imageUrl from SubCategory s where s.category.Category_id = :categoryId and s.imageUrl is not null")
+    List<String> findImageUrlsByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from SubCategory s where s.category.Category_id = :categoryId")
+    int deleteByCategoryId(@Param("categoryId") Long categoryId);
 }
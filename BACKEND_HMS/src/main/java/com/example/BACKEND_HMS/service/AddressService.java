@@ -4,7 +4,6 @@ import com.example.BACKEND_HMS.DTO.AddressRequest;
 import com.example.BACKEND_HMS.Entity.Address;
 import com.example.BACKEND_HMS.Entity.User;
 import com.example.BACKEND_HMS.repository.AddressRepository;
-import com.example.BACKEND_HMS.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,19 +14,13 @@ import java.util.List;
 public class AddressService {
 
     private final AddressRepository addressRepository;
-    private final UserRepository userRepository;
 
-    public List<Address> getMyAddresses(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public List<Address> getMyAddresses(User user) {
         return addressRepository.findByUser(user);
     }
 
     @Transactional
-    public Address addAddress(String email, AddressRequest req) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public Address addAddress(User user, AddressRequest req) {
         if (Boolean.TRUE.equals(req.getIsDefault())) {
             addressRepository.findByUserAndIsDefaultTrue(user)
                     .ifPresent(old -> {
@@ -52,9 +45,7 @@ public class AddressService {
     }
 
     @Transactional
-    public void deleteAddress(String email, Long addressId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public void deleteAddress(User user, Long addressId) {
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(() -> new RuntimeException("Address not found"));
 
@@ -8,11 +8,10 @@ import com.example.BACKEND_HMS.repository.UserRepository;
 import com.example.BACKEND_HMS.utils.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 
 
-import org.springframework.security.crypto.password.PasswordEncoder;
-
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
@@ -23,7 +22,8 @@ import java.util.Map;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginThrottleService loginThrottleService;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
 
@@ -36,7 +36,7 @@ public class AuthService {
 
         User user = User.builder()
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHashingService.encode(request.getPassword()))
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
                 .phoneNumber(request.getPhoneNumber())
@@ -49,6 +49,7 @@ public class AuthService {
         // Extra claims (optional but recommended)
         Map<String, Object> extraClaims = new HashMap<>();
         extraClaims.put("role", user.getRole().name());
+        extraClaims.put("userId", user.getId());
 
         String jwtToken = jwtUtil.generateToken(extraClaims, user);
 
@@ -61,20 +62,35 @@ public class AuthService {
     }
 
     // ================= LOGIN =================
-    public AuthResponse login(LoginRequest request) {
-
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail(),
-                        request.getPassword()
-                )
-        );
+    public AuthResponse login(LoginRequest request, String clientIp) {
+
+        loginThrottleService.checkAllowed(request.getEmail(), clientIp);
+
+        // BCrypt match provider ke bounded encoder se bulkhead pool pe - user lookup yahin.
+        // Account attempt checkAllowed mein pehle hi gina gaya; bad credentials pe woh gina hi rehta
+        // hai aur IP ka failure count badhta hai
+        try {
+            authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            request.getEmail(),
+                            request.getPassword()
+                    )
+            );
+        } catch (BadCredentialsException e) {
+            loginThrottleService.recordFailure(clientIp);
+            throw e;
+        } catch (RuntimeException e) {
+            loginThrottleService.releaseAttempt(request.getEmail());
+            throw e;
+        }
+        loginThrottleService.recordSuccess(request.getEmail());
 
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         Map<String, Object> extraClaims = new HashMap<>();
         extraClaims.put("role", user.getRole().name());
+        extraClaims.put("userId", user.getId());
 
         String jwtToken = jwtUtil.generateToken(extraClaims, user);
 
@@ -2,124 +2,234 @@ package com.example.BACKEND_HMS.service;
 
 import com.example.BACKEND_HMS.DTO.*;
 import com.example.BACKEND_HMS.Entity.*;
-import com.example.BACKEND_HMS.repository.*;
+import com.example.BACKEND_HMS.repository.CartProductRow;
+import com.example.BACKEND_HMS.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Cart edits {@link CartStore} (memory) pe - DB write-behind flush karta hai. Product checks
+ * cached getProductById se, aur online orders ke holds memory counters se (stock - reserved),
+ * toh ek normal tap pe koi SQL nahi lagta.
+ */
 @Service
 @RequiredArgsConstructor
 public class CartService {
 
-    private final CartRepository cartRepository;
-    private final CartItemRepository cartItemRepository;
+    private final CartStore cartStore;
+    private final ProductService productService;
+    private final StockReservationService reservationService;
     private final ProductRepository productRepository;
-    private final UserRepository userRepository;
 
-    private Cart getOrCreateCart(User user) {
-        return cartRepository.findByUser(user)
-                .orElseGet(() -> cartRepository.save(
-                        Cart.builder().user(user).build()
-                ));
-    }
+    @Value("${cart.batch.max-operations:200}")
+    private int maxBatchOperations;
 
-    @Transactional
-    public CartDTO addToCart(String email, AddToCartRequest req) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        Product product = productRepository.findById(req.getProductId())
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+    private enum Op { ADD, SET, REMOVE }
+
+    public CartDTO addToCart(User user, AddToCartRequest req) {
+        ProductResponseDTO product = productService.getProductById(req.getProductId());
 
         if (!product.getIsAvailable())
             throw new RuntimeException("Product is not available");
-        if (product.getStockQuantity() < req.getQuantity())
-            throw new RuntimeException("Insufficient stock");
-
-        Cart cart = getOrCreateCart(user);
-
-        CartItem existing = cartItemRepository
-                .findByCartAndProduct(cart, product).orElse(null);
-
-        if (existing != null) {
-            existing.setQuantity(existing.getQuantity() + req.getQuantity());
-            cartItemRepository.save(existing);
-        } else {
-            CartItem item = CartItem.builder()
-                    .cart(cart)
-                    .product(product)
-                    .quantity(req.getQuantity())
-                    .priceAtTime(product.getPrice().doubleValue()) // BigDecimal → Double
-                    .build();
-            cart.getCartItems().add(item);
-            cartItemRepository.save(item);
-        }
 
-        return buildCartDTO(cart);
+        return cartStore.mutate(user.getId(), cart -> {
+            CartStore.Line existing = cart.line(product.getProductId());
+            int quantity = req.getQuantity() + (existing != null ? existing.getQuantity() : 0);
+            if (available(product.getProductId(), product.getStockQuantity()) < quantity)
+                throw new RuntimeException("Insufficient stock");
+
+            if (existing != null) {
+                cart.setQuantity(product.getProductId(), quantity);
+            } else {
+                cart.put(new CartStore.Line(null, product.getProductId(), product.getName(),
+                        product.getUnit(), product.getImageUrl(), quantity,
+                        product.getPrice().doubleValue(), // BigDecimal → Double
+                        LocalDateTime.now()));
+            }
+            return buildCartDTO(cart);
+        });
     }
 
-    @Transactional
-    public CartDTO updateQuantity(String email, Long cartItemId, Integer quantity) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        Cart cart = getOrCreateCart(user);
-        CartItem item = cartItemRepository.findById(cartItemId)
-                .orElseThrow(() -> new RuntimeException("Cart item not found"));
-
-        if (!item.getCart().getCartId().equals(cart.getCartId()))
-            throw new RuntimeException("Unauthorized");
-
-        if (quantity <= 0) {
-            cart.getCartItems().remove(item);
-            cartItemRepository.delete(item);
-        } else {
-            if (item.getProduct().getStockQuantity() < quantity)
-                throw new RuntimeException("Insufficient stock");
-            item.setQuantity(quantity);
-            cartItemRepository.save(item);
-        }
+    public CartDTO updateQuantity(User user, Long cartItemId, Integer quantity) {
+        return cartStore.mutate(user.getId(), cart -> {
+            CartStore.Line item = cart.lineByItemId(cartItemId);
+            if (item == null)
+                throw new RuntimeException("Cart item not found");
+
+            if (quantity <= 0) {
+                cart.remove(item.getProductId());
+            } else {
+                if (available(item.getProductId(),
+                        productService.getProductById(item.getProductId()).getStockQuantity()) < quantity)
+                    throw new RuntimeException("Insufficient stock");
+                cart.setQuantity(item.getProductId(), quantity);
+            }
+            return buildCartDTO(cart);
+        });
+    }
+
+    public CartDTO removeItem(User user, Long cartItemId) {
+        return cartStore.mutate(user.getId(), cart -> {
+            CartStore.Line item = cart.lineByItemId(cartItemId);
+            if (item == null)
+                throw new RuntimeException("Cart item not found");
 
-        return buildCartDTO(cart);
+            cart.remove(item.getProductId());
+            return buildCartDTO(cart);
+        });
     }
 
-    @Transactional
-    public CartDTO removeItem(String email, Long cartItemId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        Cart cart = getOrCreateCart(user);
-        CartItem item = cartItemRepository.findById(cartItemId)
-                .orElseThrow(() -> new RuntimeException("Cart item not found"));
+    // ─────────────────────────────────────────────
+    //  BATCH
+    // ─────────────────────────────────────────────
+
+    /**
+     * Add / set / remove ki list ek saath - sab lagte hain ya koi nahi (user ke cart lock ke
+     * andar pehle final quantities nikaalte hain, validate karte hain, phir hi state badalti hai).
+     * Saare products ek IN query se; stock har product pe ek hi baar, final quantity ke against.
+     */
+    public CartDTO applyBatch(User user, CartBatchRequest req) {
+        List<CartOperationDTO> operations = req.getOperations();
+        if (operations == null || operations.isEmpty())
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "operations are required");
+        if (operations.size() > maxBatchOperations)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxBatchOperations + " operations per batch");
+        List<Op> ops = new ArrayList<>(operations.size());
+        for (CartOperationDTO operation : operations) ops.add(parse(operation));
+
+        Long userId = user.getId();
+        Set<Long> productIds = new HashSet<>();
+        List<Long> itemIds = new ArrayList<>();
+        for (CartOperationDTO operation : operations) {
+            if (operation.getProductId() != null) productIds.add(operation.getProductId());
+            else itemIds.add(operation.getCartItemId());
+        }
+        // cartItemId wale ops ka product lock ke bahar hi pata karo - DB query lock mein nahi
+        if (!itemIds.isEmpty()) {
+            cartStore.read(userId, cart -> {
+                for (Long itemId : itemIds) {
+                    CartStore.Line line = cart.lineByItemId(itemId);
+                    if (line != null) productIds.add(line.getProductId());
+                    else if (itemId < 0) productIds.add(-itemId);
+                }
+                return null;
+            });
+        }
+        Map<Long, CartProductRow> products = productIds.isEmpty() ? Map.of()
+                : productRepository.findCartRows(productIds).stream()
+                        .collect(Collectors.toMap(CartProductRow::productId, Function.identity()));
+
+        return cartStore.mutate(userId, cart -> {
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            cart.lines().forEach(line -> quantities.put(line.getProductId(), line.getQuantity()));
+
+            for (int i = 0; i < operations.size(); i++) {
+                CartOperationDTO operation = operations.get(i);
+                Long productId = operation.getProductId();
+                if (productId == null) {
+                    Long itemId = operation.getCartItemId();
+                    CartStore.Line line = cart.lineByItemId(itemId);
+                    if (line != null) productId = line.getProductId();
+                    // Isi batch mein pehle add hui line (-productId)
+                    else if (itemId < 0 && quantities.containsKey(-itemId)) productId = -itemId;
+                    else throw new RuntimeException("Cart item not found with id: " + itemId);
+                }
+                switch (ops.get(i)) {
+                    case ADD -> quantities.merge(productId, operation.getQuantity(), Integer::sum);
+                    case SET -> {
+                        if (operation.getQuantity() <= 0) quantities.remove(productId);
+                        else quantities.put(productId, operation.getQuantity());
+                    }
+                    case REMOVE -> quantities.remove(productId);
+                }
+            }
+
+            // Jo lines badhi / nayi hain unhi ka availability + stock check
+            quantities.forEach((productId, quantity) -> {
+                CartStore.Line existing = cart.line(productId);
+                if (existing != null && existing.getQuantity() >= quantity) return;
+                CartProductRow product = products.get(productId);
+                if (product == null)
+                    throw new RuntimeException("Product not found with id: " + productId);
+                if (!Boolean.TRUE.equals(product.isAvailable()))
+                    throw new RuntimeException("Product is not available: " + product.name());
+                if (product.stockQuantity() == null
+                        || available(product.productId(), product.stockQuantity()) < quantity)
+                    throw new RuntimeException("Insufficient stock: " + product.name());
+            });
+
+            // Sab valid - ab cart badlo
+            for (CartStore.Line line : List.copyOf(cart.lines())) {
+                if (!quantities.containsKey(line.getProductId())) cart.remove(line.getProductId());
+            }
+            quantities.forEach((productId, quantity) -> {
+                if (cart.line(productId) != null) {
+                    cart.setQuantity(productId, quantity);
+                    return;
+                }
+                CartProductRow product = products.get(productId);
+                cart.put(new CartStore.Line(null, productId, product.name(), product.unit(),
+                        product.imageUrl(), quantity, product.price().doubleValue(), LocalDateTime.now()));
+            });
+            return buildCartDTO(cart);
+        });
+    }
 
-        if (!item.getCart().getCartId().equals(cart.getCartId()))
-            throw new RuntimeException("Unauthorized");
+    private static Op parse(CartOperationDTO operation) {
+        Op op;
+        try {
+            op = Op.valueOf(String.valueOf(operation.getOp()).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown cart operation: " + operation.getOp());
+        }
+        if (operation.getProductId() == null && (op == Op.ADD || operation.getCartItemId() == null))
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    op == Op.ADD ? "ADD needs productId" : op + " needs productId or cartItemId");
+        if (op != Op.REMOVE && operation.getQuantity() == null)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, op + " needs quantity");
+        if (op == Op.ADD && operation.getQuantity() <= 0)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ADD quantity must be positive");
+        return op;
+    }
 
-        cart.getCartItems().remove(item);
-        cartItemRepository.delete(item);
-        return buildCartDTO(cart);
+    public CartDTO getCart(User user) {
+        return cartStore.read(user.getId(), this::buildCartDTO);
     }
 
-    public CartDTO getCart(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        Cart cart = getOrCreateCart(user);
-        return buildCartDTO(cart);
+    // Order ke transaction mein - rollback hua toh cart wapas
+    public void clearCart(Long userId, Collection<CartStore.Line> ordered) {
+        cartStore.clearInTransaction(userId, ordered);
     }
 
-    @Transactional
-    public void clearCart(Cart cart) {
-        cart.getCartItems().clear();
-        cartRepository.save(cart);
+    // Pending online payments ke holds ghata ke - sirf memory, koi query nahi
+    private int available(Long productId, int stock) {
+        return stock - reservationService.reserved(productId);
     }
 
-    private CartDTO buildCartDTO(Cart cart) {
-        List<CartItemDTO> items = cart.getCartItems().stream().map(item ->
+    private CartDTO buildCartDTO(CartStore.CartState cart) {
+        List<CartItemDTO> items = cart.lines().stream().map(item ->
                 CartItemDTO.builder()
-                        .cartItemId(item.getCartItemId())
-                        .productId(item.getProduct().getProduct_id()) // ✅ FIX
-                        .productName(item.getProduct().getName())
-                        .productUnit(item.getProduct().getUnit())
-                        .imageUrl(item.getProduct().getImageUrl())
+                        .cartItemId(item.getPublicId())
+                        .productId(item.getProductId())
+                        .productName(item.getProductName())
+                        .productUnit(item.getProductUnit())
+                        .imageUrl(item.getImageUrl())
                         .quantity(item.getQuantity())
                         .priceAtTime(item.getPriceAtTime())
                         .subtotal(item.getPriceAtTime() * item.getQuantity())
@@ -137,4 +247,4 @@ public class CartService {
                         .mapToInt(CartItemDTO::getQuantity).sum())
                 .build();
     }
-}
\ No newline at end of file
+}
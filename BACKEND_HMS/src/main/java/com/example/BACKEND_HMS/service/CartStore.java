@@ -0,0 +1,666 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.repository.CartLineRow;
+import com.example.BACKEND_HMS.repository.CartRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Active carts memory mein - userId → {@link CartState}, write-behind persistence ke saath.
+ *
+ * Har mutation user ke striped lock ke andar hoti hai aur sirf memory badalti hai; cart
+ * "dirty" mark hota hai. Scheduled flush (cart.store.flush-interval-ms) saare dirty carts ka
+ * snapshot leke ek transaction mein JDBC batches se likhta hai - ek cart pe 10 taps = ek
+ * flush. Checkout order transaction se pehle {@link #flush(Long)} se durable flush karta hai,
+ * shutdown pe sab flush.
+ *
+ * Naye (abhi flush nahi hue) lines ki cartItemId nahi hoti - DTO mein -productId jaata hai,
+ * aur update / remove dono tarah ki id samajhte hain. Idle clean carts memory se hat jaate
+ * hain (cart.store.idle-ms); agli request DB se dobara load karti hai.
+ */
+@Slf4j
+@Component
+public class CartStore {
+
+    private static final int IN_CHUNK = 500;
+
+    private final CartRepository cartRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ConcurrentHashMap<Long, CartState> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock[] stripes;
+
+    private final Timer flushTimer;
+    private final Counter flushedCarts;
+    private final Counter flushFailures;
+
+    @Value("${cart.store.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    @Value("${cart.store.idle-ms:1800000}")
+    private long idleMs;
+
+    public CartStore(CartRepository cartRepository,
+                     JdbcTemplate jdbcTemplate,
+                     TransactionTemplate transactionTemplate,
+                     MeterRegistry meterRegistry,
+                     @Value("${cart.store.lock-stripes:64}") int lockStripes) {
+        this.cartRepository = cartRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // Flush hamesha apna transaction - memory mein flushed version commit ke baad hi lagta hai
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+
+        // Power of two - index = hash & mask
+        int size = Integer.highestOneBit(Math.max(1, lockStripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) stripes[i] = new ReentrantLock();
+
+        this.flushTimer = meterRegistry.timer("cart.store.flush");
+        this.flushedCarts = meterRegistry.counter("cart.store.flushed");
+        this.flushFailures = meterRegistry.counter("cart.store.flush.failed");
+        meterRegistry.gaugeMapSize("cart.store.size", List.of(), carts);
+        meterRegistry.gaugeCollectionSize("cart.store.dirty", List.of(), dirty);
+    }
+
+    // ═══════════════════════════════════════════════
+    //  READ / MUTATE
+    // ═══════════════════════════════════════════════
+
+    /** User ke lock ke andar cart padho - kuch badalna nahi. */
+    public <T> T read(Long userId, Function<CartState, T> reader) {
+        return withState(userId, reader);
+    }
+
+    /**
+     * User ke lock ke andar cart badlo. Callback exception fenke toh ab tak ke badlav memory
+     * mein reh jaate hain - isliye validation pehle, mutation baad mein.
+     */
+    public <T> T mutate(Long userId, Function<CartState, T> mutation) {
+        return withState(userId, state -> {
+            T result = mutation.apply(state);
+            if (state.isDirty()) dirty.add(userId);
+            return result;
+        });
+    }
+
+    private <T> T withState(Long userId, Function<CartState, T> action) {
+        ReentrantLock lock = lockFor(userId);
+        while (true) {
+            CartState state = carts.get(userId);
+            if (state == null) {
+                // DB load lock ke bahar - putIfAbsent jeetne wala hi rehta hai
+                CartState loaded = load(userId);
+                CartState raced = carts.putIfAbsent(userId, loaded);
+                state = raced != null ? raced : loaded;
+            }
+            lock.lock();
+            try {
+                // Idle eviction ne beech mein hata diya - naya state lo
+                if (state.evicted) continue;
+                state.lastAccess = System.currentTimeMillis();
+                return action.apply(state);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // ═══════════════════════════════════════════════
+    //  CHECKOUT
+    // ═══════════════════════════════════════════════
+
+    /**
+     * Is user ke pending edits abhi DB mein (apna transaction, commit ke saath). Lines ki copies wapas.
+     * Kisi transaction ke andar se nahi - REQUIRES_NEW doosra connection pakadta, pool pe deadlock.
+     */
+    public List<Line> flush(Long userId) {
+        Assert.state(!TransactionSynchronizationManager.isActualTransactionActive(),
+                "Cart flush must run outside the caller's transaction");
+        flushUsers(List.of(userId));
+        // Detached copies - baad ke cart edits order ki quantities / clear ka comparison nahi badalte
+        return read(userId, state -> state.snapshot().lines());
+    }
+
+    /**
+     * Order ke baad ordered lines cart se hatao - memory turant, DB delete caller ke transaction
+     * mein. Sirf checkout flush wali lines (same quantity); uske baad aayi / badli lines cart mein
+     * rehti hain. Flush lock ke andar, taaki chalta write-behind flush beech mein na ghuse.
+     * Rollback hua toh hatayi lines wapas aa jaati hain (dirty, flush DB se mila lega).
+     */
+    public void clearInTransaction(Long userId, Collection<Line> ordered) {
+        List<Line> removed = new ArrayList<>();
+        CartState cached = carts.get(userId);
+        if (cached != null) cached.flushLock.lock();
+        try {
+            Long cartId = mutate(userId, state -> {
+                boolean wasClean = !state.isDirty();
+                for (Line line : ordered) {
+                    Line current = state.line(line.getProductId());
+                    if (current == null || current.quantity != line.quantity) continue;
+                    removed.add(current);
+                    state.remove(line.getProductId());
+                }
+                // DB wala delete neeche isi transaction mein - flush ko dobara nahi likhna
+                if (wasClean) state.flushedVersion = state.version;
+                return state.cartId;
+            });
+            if (cartId != null && !removed.isEmpty()) {
+                List<Object> args = new ArrayList<>();
+                args.add(cartId);
+                removed.forEach(line -> args.add(line.getProductId()));
+                jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id = ? AND product_id IN ("
+                        + placeholders(removed) + ")", args.toArray());
+            }
+        } finally {
+            if (cached != null) cached.flushLock.unlock();
+        }
+        if (removed.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) return;
+                mutate(userId, state -> {
+                    removed.forEach(line -> {
+                        if (state.line(line.getProductId()) == null) state.put(line);
+                    });
+                    return null;
+                });
+            }
+        });
+    }
+
+    /** Memory wala copy hatao (clean ho tab hi) - agli request DB se load karegi. */
+    public void invalidate(Long userId) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            CartState state = carts.get(userId);
+            if (state != null && !state.isDirty()) {
+                state.evicted = true;
+                carts.remove(userId, state);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Memory mein hai = haal hi mein use hua (idle-ms ke andar) - sweeper ise nahi chhoota. */
+    public boolean isCached(Long userId) {
+        return carts.containsKey(userId);
+    }
+
+    /**
+     * Sweeper ne in carts ki rows hata di (userId → cartId). Beech mein koi user wapas aa gaya
+     * aur uska cart memory mein hai toh woh naya cart ban ke dobara flush hoga - kuch khoye nahi.
+     */
+    public void onCartsDeleted(Map<Long, Long> cartIdByUser) {
+        cartIdByUser.forEach((userId, cartId) -> {
+            ReentrantLock lock = lockFor(userId);
+            lock.lock();
+            try {
+                CartState state = carts.get(userId);
+                if (state == null || !cartId.equals(state.cartId)) return;
+                state.cartId = null;
+                state.lines.values().forEach(line -> line.cartItemId = null);
+                if (!state.lines.isEmpty()) {
+                    state.version++;
+                    dirty.add(userId);
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    // User hi nahi raha - pending edits bhi bekaar
+    private void discard(Long userId) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            CartState state = carts.remove(userId);
+            if (state != null) state.evicted = true;
+            dirty.remove(userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ═══════════════════════════════════════════════
+    //  WRITE-BEHIND FLUSH
+    // ═══════════════════════════════════════════════
+
+    @Scheduled(fixedDelayString = "${cart.store.flush-interval-ms:2000}")
+    public void flushDirty() {
+        List<Long> userIds = new ArrayList<>(dirty);
+        for (int from = 0; from < userIds.size(); from += flushBatchSize) {
+            flushUsers(userIds.subList(from, Math.min(from + flushBatchSize, userIds.size())));
+        }
+        evictIdle();
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        log.info("Flushing {} dirty carts before shutdown", dirty.size());
+        flushDirty();
+    }
+
+    private void flushUsers(Collection<Long> userIds) {
+        // Sorted order mein flush locks - do flush ek doosre ka wait karke deadlock na karein
+        List<CartState> states = userIds.stream()
+                .sorted()
+                .map(carts::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        states.forEach(state -> state.flushLock.lock());
+        try {
+            Map<Long, Snapshot> snapshots = new LinkedHashMap<>();
+            for (CartState state : states) {
+                Snapshot snapshot = withState(state.userId, s -> s == state && s.isDirty() ? s.snapshot() : null);
+                dirty.remove(state.userId);
+                if (snapshot != null) snapshots.put(state.userId, snapshot);
+            }
+            if (snapshots.isEmpty()) return;
+
+            FlushResult result;
+            try {
+                result = flushTimer.recordCallable(() -> transactionTemplate.execute(tx -> write(snapshots)));
+            } catch (Exception e) {
+                log.warn("Cart flush failed for {} carts - will retry", snapshots.size(), e);
+                flushFailures.increment();
+                dirty.addAll(snapshots.keySet());
+                return;
+            }
+            flushedCarts.increment(snapshots.size());
+            snapshots.forEach((userId, snapshot) -> applyFlushed(userId, snapshot, result));
+        } finally {
+            states.forEach(state -> state.flushLock.unlock());
+        }
+    }
+
+    // Commit ho gaya - ids lagao; beech mein naye edits aaye toh cart dirty hi rehta hai
+    private void applyFlushed(Long userId, Snapshot snapshot, FlushResult result) {
+        if (result.missingUsers.contains(userId)) {
+            discard(userId);
+            return;
+        }
+        withState(userId, state -> {
+            // Naya cart bana (pehli baar, ya sweeper ke baad dobara) - saari line ids nayi
+            boolean created = result.cartIds.containsKey(userId);
+            if (created) state.cartId = result.cartIds.get(userId);
+            Map<Long, Long> itemIds = result.itemIds.getOrDefault(state.cartId, Map.of());
+            for (Line line : state.lines.values()) {
+                if (line.cartItemId == null || created) line.cartItemId = itemIds.get(line.productId);
+            }
+            if (state.version == snapshot.version()) state.flushedVersion = snapshot.version();
+            // Beech mein delete hue products - DB mein likhe nahi gaye, memory se bhi hatao
+            for (Long productId : result.missingProducts) {
+                if (state.lines.containsKey(productId)) state.remove(productId);
+            }
+            if (state.isDirty()) dirty.add(userId);
+            return null;
+        });
+    }
+
+    private FlushResult write(Map<Long, Snapshot> snapshots) {
+        FlushResult result = new FlushResult();
+
+        // Jin products ko beech mein delete kar diya gaya unki lines nahi likhni (FK)
+        Set<Long> productIds = snapshots.values().stream()
+                .flatMap(s -> s.lines().stream().map(Line::getProductId))
+                .collect(Collectors.toSet());
+        Set<Long> existingProducts = new HashSet<>();
+        for (List<Long> chunk : chunks(productIds)) {
+            existingProducts.addAll(jdbcTemplate.queryForList(
+                    "SELECT product_id FROM products WHERE product_id IN (" + placeholders(chunk) + ")",
+                    Long.class, chunk.toArray()));
+        }
+        productIds.stream().filter(id -> !existingProducts.contains(id)).forEach(result.missingProducts::add);
+
+        // Naye carts ke users beech mein delete ho gaye ho sakte hain - ek ki FK poora batch na gira de
+        List<Long> newCartUsers = snapshots.entrySet().stream()
+                .filter(e -> !e.getValue().lines().isEmpty())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        Set<Long> existingUsers = new HashSet<>();
+        for (List<Long> chunk : chunks(newCartUsers)) {
+            existingUsers.addAll(jdbcTemplate.queryForList(
+                    "SELECT id FROM users WHERE id IN (" + placeholders(chunk) + ")",
+                    Long.class, chunk.toArray()));
+        }
+        newCartUsers.stream().filter(id -> !existingUsers.contains(id)).forEach(result.missingUsers::add);
+
+        // Sweeper ne beech mein cart hata diya ho toh naya banta hai
+        List<Long> knownCartIds = snapshots.values().stream()
+                .map(Snapshot::cartId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        Set<Long> existingCarts = new HashSet<>();
+        for (List<Long> chunk : chunks(knownCartIds)) {
+            existingCarts.addAll(jdbcTemplate.queryForList(
+                    "SELECT cart_id FROM carts WHERE cart_id IN (" + placeholders(chunk) + ")",
+                    Long.class, chunk.toArray()));
+        }
+
+        // Pehli baar items aaye - cart row ab banti hai (read pe kabhi nahi)
+        Map<Long, Long> cartIdByUser = new HashMap<>();
+        snapshots.forEach((userId, snapshot) -> {
+            if (result.missingUsers.contains(userId)) return;
+            Long cartId = snapshot.cartId() != null && existingCarts.contains(snapshot.cartId())
+                    ? snapshot.cartId() : null;
+            if (cartId == null && !snapshot.lines().isEmpty()) {
+                cartId = insertCart(userId);
+                result.cartIds.put(userId, cartId);
+            }
+            if (cartId != null) cartIdByUser.put(userId, cartId);
+        });
+        if (cartIdByUser.isEmpty()) return result;
+
+        // cartId → (productId → {cartItemId, quantity}) jo DB mein abhi hai
+        Map<Long, Map<Long, long[]>> persisted = new HashMap<>();
+        for (List<Long> chunk : chunks(cartIdByUser.values())) {
+            jdbcTemplate.query(
+                    "SELECT cart_item_id, cart_id, product_id, quantity FROM cart_items WHERE cart_id IN ("
+                            + placeholders(chunk) + ")",
+                    rs -> {
+                        persisted.computeIfAbsent(rs.getLong(2), k -> new HashMap<>())
+                                .put(rs.getLong(3), new long[]{rs.getLong(1), rs.getInt(4)});
+                    },
+                    chunk.toArray());
+        }
+
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        Set<Long> cartsWithInserts = new HashSet<>();
+        cartIdByUser.forEach((userId, cartId) -> {
+            Map<Long, long[]> current = persisted.getOrDefault(cartId, Map.of());
+            Map<Long, Line> wanted = new HashMap<>();
+            for (Line line : snapshots.get(userId).lines()) {
+                if (existingProducts.contains(line.productId)) wanted.put(line.productId, line);
+            }
+            current.forEach((productId, row) -> {
+                Line line = wanted.get(productId);
+                if (line == null) deletes.add(new Object[]{row[0]});
+                else if (line.quantity != row[1]) updates.add(new Object[]{line.quantity, row[0]});
+            });
+            wanted.forEach((productId, line) -> {
+                if (current.containsKey(productId)) return;
+                inserts.add(new Object[]{cartId, productId, line.quantity, line.priceAtTime,
+                        Timestamp.valueOf(line.addedAt)});
+                cartsWithInserts.add(cartId);
+            });
+        });
+
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM cart_items WHERE cart_item_id = ?", deletes);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE cart_items SET quantity = ? WHERE cart_item_id = ?", updates);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO cart_items (cart_id, product_id, quantity, price_at_time, added_at) "
+                    + "VALUES (?, ?, ?, ?, ?)", inserts);
+            // Batch insert generated keys nahi deta - naye rows ki ids ek query mein
+            for (List<Long> chunk : chunks(cartsWithInserts)) {
+                jdbcTemplate.query(
+                        "SELECT cart_item_id, cart_id, product_id FROM cart_items WHERE cart_id IN ("
+                                + placeholders(chunk) + ")",
+                        rs -> {
+                            result.itemIds.computeIfAbsent(rs.getLong(2), k -> new HashMap<>())
+                                    .put(rs.getLong(3), rs.getLong(1));
+                        },
+                        chunk.toArray());
+            }
+        }
+        return result;
+    }
+
+    private Long insertCart(Long userId) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO carts (user_id, created_at) VALUES (?, ?)", new String[]{"cart_id"});
+            ps.setLong(1, userId);
+            ps.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            return ps;
+        }, keyHolder);
+        return Objects.requireNonNull(keyHolder.getKey()).longValue();
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMs;
+        carts.forEach((userId, state) -> {
+            if (state.lastAccess >= cutoff) return;
+            ReentrantLock lock = lockFor(userId);
+            lock.lock();
+            try {
+                if (!state.isDirty() && state.lastAccess < cutoff) {
+                    state.evicted = true;
+                    carts.remove(userId, state);
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    // ═══════════════════════════════════════════════
+    //  LOAD
+    // ═══════════════════════════════════════════════
+
+    // Read-only transaction, ek projection SELECT. Jiska cart nahi hai use virtual khaali cart
+    // (cartId null) - row pehle item ke flush pe hi banti hai
+    private CartState load(Long userId) {
+        return readOnlyTransactionTemplate.execute(tx -> {
+            CartState state = new CartState(userId);
+            for (CartLineRow row : cartRepository.findLinesByUserId(userId)) {
+                state.cartId = row.cartId();
+                if (row.cartItemId() == null) continue;
+                state.lines.put(row.productId(), new Line(row.cartItemId(), row.productId(),
+                        row.productName(), row.productUnit(), row.imageUrl(),
+                        row.quantity() != null ? row.quantity() : 0, row.priceAtTime(),
+                        row.addedAt() != null ? row.addedAt() : LocalDateTime.now()));
+            }
+            return state;
+        });
+    }
+
+    private ReentrantLock lockFor(Long userId) {
+        int h = userId.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & (stripes.length - 1)];
+    }
+
+    private static <T> List<List<T>> chunks(Collection<T> values) {
+        List<T> list = new ArrayList<>(values);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += IN_CHUNK) {
+            chunks.add(list.subList(from, Math.min(from + IN_CHUNK, list.size())));
+        }
+        return chunks;
+    }
+
+    private static String placeholders(Collection<?> values) {
+        return String.join(",", Collections.nCopies(values.size(), "?"));
+    }
+
+    // ═══════════════════════════════════════════════
+    //  STATE
+    // ═══════════════════════════════════════════════
+
+    /** Ek user ka cart. Sirf {@link #read} / {@link #mutate} callbacks ke andar (lock ke saath) chhuo. */
+    public static final class CartState {
+        private final Long userId;
+        private final LinkedHashMap<Long, Line> lines = new LinkedHashMap<>();
+        private final ReentrantLock flushLock = new ReentrantLock();
+        private Long cartId;
+        private long version;
+        private long flushedVersion;
+        private volatile long lastAccess = System.currentTimeMillis();
+        private boolean evicted;
+
+        private CartState(Long userId) {
+            this.userId = userId;
+        }
+
+        public Long getCartId() {
+            return cartId;
+        }
+
+        public Collection<Line> lines() {
+            return Collections.unmodifiableCollection(lines.values());
+        }
+
+        public Line line(Long productId) {
+            return lines.get(productId);
+        }
+
+        /** Flushed line ki asli id, ya naye line ki -productId. */
+        public Line lineByItemId(Long cartItemId) {
+            if (cartItemId == null) return null;
+            if (cartItemId < 0) return lines.get(-cartItemId);
+            for (Line line : lines.values()) {
+                if (cartItemId.equals(line.cartItemId)) return line;
+            }
+            return null;
+        }
+
+        public void put(Line line) {
+            lines.put(line.productId, line);
+            version++;
+        }
+
+        public void setQuantity(Long productId, int quantity) {
+            Line line = lines.get(productId);
+            if (line == null || line.quantity == quantity) return;
+            line.quantity = quantity;
+            version++;
+        }
+
+        public void remove(Long productId) {
+            if (lines.remove(productId) != null) version++;
+        }
+
+        boolean isDirty() {
+            return version != flushedVersion;
+        }
+
+        private Snapshot snapshot() {
+            List<Line> copy = lines.values().stream().map(Line::copy).collect(Collectors.toList());
+            return new Snapshot(cartId, version, copy);
+        }
+    }
+
+    /** Cart ki ek line - product ka display data add ke waqt ka (priceAtTime jaisa snapshot). */
+    public static final class Line {
+        private Long cartItemId;
+        private final Long productId;
+        private final String productName;
+        private final String productUnit;
+        private final String imageUrl;
+        private int quantity;
+        private final Double priceAtTime;
+        private final LocalDateTime addedAt;
+
+        public Line(Long cartItemId, Long productId, String productName, String productUnit, String imageUrl,
+                    int quantity, Double priceAtTime, LocalDateTime addedAt) {
+            this.cartItemId = cartItemId;
+            this.productId = productId;
+            this.productName = productName;
+            this.productUnit = productUnit;
+            this.imageUrl = imageUrl;
+            this.quantity = quantity;
+            this.priceAtTime = priceAtTime;
+            this.addedAt = addedAt;
+        }
+
+        public Long getCartItemId() {
+            return cartItemId;
+        }
+
+        /** DTO wali id - flush se pehle -productId. */
+        public Long getPublicId() {
+            return cartItemId != null ? cartItemId : -productId;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public String getProductName() {
+            return productName;
+        }
+
+        public String getProductUnit() {
+            return productUnit;
+        }
+
+        public String getImageUrl() {
+            return imageUrl;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public Double getPriceAtTime() {
+            return priceAtTime;
+        }
+
+        public LocalDateTime getAddedAt() {
+            return addedAt;
+        }
+
+        private Line copy() {
+            return new Line(cartItemId, productId, productName, productUnit, imageUrl, quantity, priceAtTime, addedAt);
+        }
+    }
+
+    private record Snapshot(Long cartId, long version, List<Line> lines) {
+    }
+
+    private static final class FlushResult {
+        private final Map<Long, Long> cartIds = new HashMap<>();
+        private final Map<Long, Map<Long, Long>> itemIds = new HashMap<>();
+        private final Set<Long> missingProducts = new HashSet<>();
+        private final Set<Long> missingUsers = new HashSet<>();
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.DTO.CartSweepReportDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Abandoned carts ki safai. Cart ki last activity = sabse naye CartItem ka addedAt (khaali cart
+ * ho toh cart ka createdAt); max-idle-days se purane carts chhote batches mein set-based DELETE
+ * se hat'te hain, har batch apni chhoti transaction mein aur beech mein pause - taaki checkout
+ * ke locks / connections se takraav na ho. Jo user abhi CartStore mein hai uska cart nahi chhoote.
+ */
+@Slf4j
+@Service
+public class CartSweeperService {
+
+    private static final String CANDIDATES_SQL =
+            "SELECT c.cart_id, c.user_id FROM carts c "
+                    + "LEFT JOIN cart_items i ON i.cart_id = c.cart_id "
+                    + "WHERE c.cart_id > ? "
+                    + "GROUP BY c.cart_id, c.user_id, c.created_at "
+                    + "HAVING COALESCE(MAX(i.added_at), c.created_at) IS NULL "
+                    + "OR COALESCE(MAX(i.added_at), c.created_at) < ? "
+                    + "ORDER BY c.cart_id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CartStore cartStore;
+    private final Counter cartsCounter;
+    private final Counter itemsCounter;
+    private final ReentrantLock running = new ReentrantLock();
+
+    private volatile CartSweepReportDTO lastReport;
+
+    @Value("${cart.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cart.sweeper.max-idle-days:30}")
+    private int maxIdleDays;
+
+    @Value("${cart.sweeper.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cart.sweeper.pause-ms:200}")
+    private long pauseMs;
+
+    public CartSweeperService(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              CartStore cartStore,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cartStore = cartStore;
+        this.cartsCounter = meterRegistry.counter("cart.sweeper.carts");
+        this.itemsCounter = meterRegistry.counter("cart.sweeper.items");
+    }
+
+    @Scheduled(initialDelayString = "${cart.sweeper.initial-delay-ms:600000}",
+            fixedDelayString = "${cart.sweeper.interval-ms:3600000}")
+    public void scheduledSweep() {
+        if (!enabled || !running.tryLock()) return;
+        try {
+            sweep(LocalDateTime.now().minusDays(maxIdleDays));
+        } finally {
+            running.unlock();
+        }
+    }
+
+    // Admin ka "abhi chalao" - ek waqt pe ek hi sweep
+    public CartSweepReportDTO runNow() {
+        if (!running.tryLock()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Cart sweep already running");
+        }
+        try {
+            return sweep(LocalDateTime.now().minusDays(maxIdleDays));
+        } finally {
+            running.unlock();
+        }
+    }
+
+    public CartSweepReportDTO getLastReport() {
+        return lastReport;
+    }
+
+    // ═══════════════════════════════════════════════
+    //  SWEEP
+    // ═══════════════════════════════════════════════
+
+    private CartSweepReportDTO sweep(LocalDateTime idleBefore) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long cartsDeleted = 0;
+        long itemsDeleted = 0;
+        long skippedActive = 0;
+        int batches = 0;
+
+        // cart_id pe keyset - har batch pichhle wale ke aage se, poori table ek baar
+        long afterId = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            Map<Long, Long> candidates = new LinkedHashMap<>();   // cartId → userId
+            jdbcTemplate.query(CANDIDATES_SQL,
+                    rs -> {
+                        candidates.put(rs.getLong(1), rs.getLong(2));
+                    },
+                    afterId, Timestamp.valueOf(idleBefore), batchSize);
+            if (candidates.isEmpty()) break;
+            afterId = candidates.keySet().stream().mapToLong(Long::longValue).max().getAsLong();
+
+            Map<Long, Long> cartIdByUser = new LinkedHashMap<>();
+            candidates.forEach((cartId, userId) -> {
+                if (!cartStore.isCached(userId)) cartIdByUser.put(userId, cartId);
+            });
+            skippedActive += candidates.size() - cartIdByUser.size();
+
+            if (!cartIdByUser.isEmpty()) {
+                int[] deleted = deleteBatch(new ArrayList<>(cartIdByUser.values()));
+                // Select aur delete ke beech koi user aa gaya ho toh uska cart dobara banega
+                cartStore.onCartsDeleted(cartIdByUser);
+                itemsDeleted += deleted[0];
+                cartsDeleted += deleted[1];
+                itemsCounter.increment(deleted[0]);
+                cartsCounter.increment(deleted[1]);
+                batches++;
+            }
+
+            if (candidates.size() < batchSize) break;
+            if (!pause()) break;
+        }
+
+        CartSweepReportDTO report = CartSweepReportDTO.builder()
+                .startedAt(startedAt)
+                .finishedAt(LocalDateTime.now())
+                .idleBefore(idleBefore)
+                .cartsDeleted(cartsDeleted)
+                .itemsDeleted(itemsDeleted)
+                .batches(batches)
+                .skippedActive(skippedActive)
+                .build();
+        lastReport = report;
+        log.info("Cart sweep: {} carts / {} items purged in {} batches (idle before {}, {} active skipped)",
+                cartsDeleted, itemsDeleted, batches, idleBefore, skippedActive);
+        return report;
+    }
+
+    // Ek batch = ek chhoti transaction: pehle items (FK), phir carts
+    private int[] deleteBatch(List<Long> cartIds) {
+        String in = cartIds.stream().map(id -> "?").collect(Collectors.joining(","));
+        Object[] args = cartIds.toArray();
+        return transactionTemplate.execute(tx -> new int[]{
+                jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id IN (" + in + ")", args),
+                jdbcTemplate.update("DELETE FROM carts WHERE cart_id IN (" + in + ")", args)
+        });
+    }
+
+    private boolean pause() {
+        if (pauseMs <= 0) return true;
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.config.CacheConfig;
+import com.example.BACKEND_HMS.event.CatalogChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Har catalog event pe cache eviction - annotations ke bahar wale writes (order pe stock kam
+ * hona, upload worker ka image attach) bhi yahin se. Product ids productById se hat'te hain;
+ * category / subcategory change pe unki list ke saath neeche wali caches bhi clear (DTOs mein
+ * parent ke naam hote hain).
+ *
+ * CatalogVersionService ke bump se pehle chalna zaroori hai - warna naya ETag purane cached
+ * body ke saath chala jaata aur client ko 304 milta rehta.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogCacheEvictionListener {
+
+    private final CacheManager cacheManager;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        switch (event.kind()) {
+            case PRODUCT -> {
+                Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_BY_ID);
+                if (cache == null) return;
+                if (event.affectsAll()) cache.clear();
+                else event.ids().forEach(cache::evict);
+            }
+            case CATEGORY -> {
+                clear(CacheConfig.CATEGORY_LIST);
+                clear(CacheConfig.SUB_CATEGORY_LIST);
+                clear(CacheConfig.PRODUCT_BY_ID);
+            }
+            case SUB_CATEGORY -> {
+                clear(CacheConfig.SUB_CATEGORY_LIST);
+                clear(CacheConfig.PRODUCT_BY_ID);
+            }
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) cache.clear();
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.DTO.ProductResponseDTO;
+import com.example.BACKEND_HMS.Entity.Product;
+import com.example.BACKEND_HMS.event.CatalogChangedEvent;
+import com.example.BACKEND_HMS.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Search aur facet indexes ka ek hi refresher. CatalogChangedEvent commit ke baad sirf pending
+ * kaam mein jud'ta hai - asli kaam ek background thread pe, committing request thread pe nahi.
+ * Pending kaam coalesce hota hai: kitne bhi category edits aayein, agla drain ek hi full rebuild.
+ * Sab kuch isi ek thread pe, event order mein - jo upsert rebuild ke shuru hone ke baad commit
+ * hua woh rebuild ke baad apply hota hai, isliye purana rebuild use overwrite nahi kar sakta.
+ */
+@Slf4j
+@Component
+public class CatalogIndexRefresher {
+
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final List<ProductIndex> indexes;
+    private final ExecutorService executor;
+
+    // Pending kaam - sirf this ke monitor ke saath padho / likho
+    private boolean rebuildPending;
+    private final Map<Long, Boolean> pendingProducts = new LinkedHashMap<>();   // true = upsert, false = delete
+    private boolean draining;
+
+    public CatalogIndexRefresher(ProductRepository productRepository,
+                                 ProductService productService,
+                                 ProductSearchService productSearchService,
+                                 ProductFacetService productFacetService,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.indexes = List.of(productSearchService.index(), productFacetService.index());
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "catalog-index-refresh");
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "catalog.index.refresh");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        requestRebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        // Category / subcategory ka naam har product doc mein hai, aur delete cascade karta hai - poora rebuild (rare)
+        if (event.kind() != CatalogChangedEvent.Kind.PRODUCT || event.affectsAll()) {
+            requestRebuild();
+            return;
+        }
+        boolean upsert = event.action() != CatalogChangedEvent.Action.DELETE;
+        synchronized (this) {
+            event.ids().forEach(id -> pendingProducts.put(id, upsert));
+            scheduleDrain();
+        }
+    }
+
+    public synchronized void requestRebuild() {
+        rebuildPending = true;
+        scheduleDrain();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ─────────────────────────────────────────────
+
+    // Ek waqt pe ek hi drain queue mein - baaki requests usi mein mil jaati hain
+    private void scheduleDrain() {
+        if (draining) return;
+        draining = true;
+        executor.execute(this::drain);
+    }
+
+    private void drain() {
+        while (true) {
+            boolean rebuild;
+            Map<Long, Boolean> products;
+            synchronized (this) {
+                if (!rebuildPending && pendingProducts.isEmpty()) {
+                    draining = false;
+                    return;
+                }
+                rebuild = rebuildPending;
+                products = new LinkedHashMap<>(pendingProducts);
+                rebuildPending = false;
+                pendingProducts.clear();
+            }
+            try {
+                // Rebuild in events ke commit ke baad padhta hai - unke product changes usmein aa jaate hain
+                if (rebuild) rebuild();
+                else apply(products);
+            } catch (RuntimeException e) {
+                log.warn("Catalog index refresh failed, scheduling a full rebuild", e);
+                synchronized (this) {
+                    rebuildPending = true;
+                    if (!pauseBeforeRetry()) {
+                        draining = false;
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private void rebuild() {
+        List<ProductResponseDTO> products = readOnlyTransactionTemplate.execute(tx ->
+                productRepository.findAll()
+                        .stream()
+                        .map(productService::toDTO)
+                        .sorted(Comparator.comparing(ProductResponseDTO::getProductId))
+                        .collect(Collectors.toList()));
+        indexes.forEach(index -> index.replaceAll(products));
+        log.info("Product search / facet indexes rebuilt with {} products", products.size());
+    }
+
+    private void apply(Map<Long, Boolean> products) {
+        List<Long> upsertIds = new ArrayList<>();
+        products.forEach((id, upsert) -> {
+            if (upsert) upsertIds.add(id);
+            else indexes.forEach(index -> index.remove(id));
+        });
+        if (upsertIds.isEmpty()) return;
+
+        Map<Long, ProductResponseDTO> loaded = readOnlyTransactionTemplate.execute(tx ->
+                productRepository.findAllById(upsertIds)
+                        .stream()
+                        .collect(Collectors.toMap(Product::getProduct_id, productService::toDTO)));
+        for (Long id : upsertIds) {
+            ProductResponseDTO dto = loaded.get(id);
+            // Beech mein delete ho gaya - delete event bhi aata hi hoga, par index abhi se saaf
+            indexes.forEach(index -> {
+                if (dto != null) index.upsert(dto);
+                else index.remove(id);
+            });
+        }
+    }
+
+    // Shutdown pe interrupt - drain chhod do
+    private boolean pauseBeforeRetry() {
+        try {
+            wait(1000);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.DTO.CatalogSyncDTO;
+import com.example.BACKEND_HMS.Entity.CatalogTombstone;
+import com.example.BACKEND_HMS.event.CatalogChangedEvent;
+import com.example.BACKEND_HMS.repository.CatalogTombstoneRepository;
+import com.example.BACKEND_HMS.repository.CategoryRepository;
+import com.example.BACKEND_HMS.repository.ProductRepository;
+import com.example.BACKEND_HMS.repository.SubCategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Offline-capable app ke liye delta sync - "since T ke baad kya badla / kya delete hua".
+ *
+ * Upserts updatedAt index se aate hain, deletes catalog_tombstones se. Transaction commit
+ * updatedAt set hone ke thodi der baad hota hai, isliye since se overlap-seconds peeche
+ * se padhte hain (client ke liye upsert idempotent hai, duplicate se farak nahi padta).
+ * Tombstones retention ke baad prune hote hain - usse purana since aaya toh full resync.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogSyncService {
+
+    private final CategoryRepository         categoryRepository;
+    private final SubCategoryRepository      subCategoryRepository;
+    private final ProductRepository          productRepository;
+    private final CatalogTombstoneRepository catalogTombstoneRepository;
+    private final CategoryService            categoryService;
+    private final SubCategoryService         subCategoryService;
+    private final ProductService             productService;
+
+    @Value("${catalog.sync.overlap-seconds:5}")
+    private long overlapSeconds;
+
+    @Value("${catalog.sync.tombstone-retention-days:30}")
+    private long retentionDays;
+
+    @Transactional(readOnly = true)
+    public CatalogSyncDTO changesSince(Long sinceMillis) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.minusDays(retentionDays);
+        LocalDateTime since = sinceMillis != null
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(sinceMillis), ZoneId.systemDefault())
+                : null;
+        long watermark = now.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        // Pehli sync, ya itna purana ki tombstones prune ho chuke - poora catalog bhejo
+        if (since == null || since.isBefore(horizon)) {
+            return CatalogSyncDTO.builder()
+                    .watermark(watermark)
+                    .fullResync(true)
+                    .categories(categoryRepository.findAll().stream()
+                            .map(categoryService::toDTO).collect(Collectors.toList()))
+                    .subCategories(subCategoryRepository.findAll().stream()
+                            .map(subCategoryService::toDTO).collect(Collectors.toList()))
+                    .products(productRepository.findAll().stream()
+                            .map(productService::toDTO).collect(Collectors.toList()))
+                    .deletedCategoryIds(List.of())
+                    .deletedSubCategoryIds(List.of())
+                    .deletedProductIds(List.of())
+                    .build();
+        }
+
+        LocalDateTime from = since.minusSeconds(overlapSeconds);
+        List<CatalogTombstone> tombstones = catalogTombstoneRepository.findDeletedAfter(from);
+        return CatalogSyncDTO.builder()
+                .watermark(watermark)
+                .fullResync(false)
+                .categories(categoryRepository.findByUpdatedAtAfter(from).stream()
+                        .map(categoryService::toDTO).collect(Collectors.toList()))
+                .subCategories(subCategoryRepository.findByUpdatedAtAfter(from).stream()
+                        .map(subCategoryService::toDTO).collect(Collectors.toList()))
+                .products(productRepository.findByUpdatedAtAfter(from).stream()
+                        .map(productService::toDTO).collect(Collectors.toList()))
+                .deletedCategoryIds(deletedIds(tombstones, CatalogChangedEvent.Kind.CATEGORY))
+                .deletedSubCategoryIds(deletedIds(tombstones, CatalogChangedEvent.Kind.SUB_CATEGORY))
+                .deletedProductIds(deletedIds(tombstones, CatalogChangedEvent.Kind.PRODUCT))
+                .build();
+    }
+
+    // Retention se purane tombstones hatao - itne purane client ko waise bhi full resync milta hai
+    @Scheduled(fixedDelayString = "${catalog.sync.prune-interval-ms:3600000}")
+    @Transactional
+    public void pruneTombstones() {
+        int removed = catalogTombstoneRepository.deleteOlderThan(LocalDateTime.now().minusDays(retentionDays));
+        if (removed > 0) log.info("Pruned {} catalog tombstones", removed);
+    }
+
+    private static List<Long> deletedIds(List<CatalogTombstone> tombstones, CatalogChangedEvent.Kind kind) {
+        return tombstones.stream()
+                .filter(t -> t.getKind() == kind)
+                .map(CatalogTombstone::getEntityId)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.event.CatalogChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalog ka version stamp - har mutation pe aage badhta hai.
+ * Catalog GET endpoints isse strong ETag + Last-Modified banate hain; client ka If-None-Match
+ * match kare toh 304, bina DB ya JSON serialization ke.
+ */
+@Service
+public class CatalogVersionService {
+
+    // Restart ke baad purane ETags galti se match na hon
+    private final long bootId = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastModified = roundToSeconds(System.currentTimeMillis());
+
+    // Commit ke baad hi bump (transaction na ho toh turant). Sabse aakhir mein - cache eviction
+    // aur tree stale flags pehle lag chuke hon, tabhi naya ETag kisi client ko dikhe
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        version.incrementAndGet();
+        lastModified = roundToSeconds(System.currentTimeMillis());
+    }
+
+    public String etag() {
+        return "\"" + bootId + "-" + version.get() + "\"";
+    }
+
+    // HTTP dates second precision ki hoti hain
+    public long lastModified() {
+        return lastModified;
+    }
+
+    private static long roundToSeconds(long millis) {
+        return millis / 1000 * 1000;
+    }
+}
@@ -2,13 +2,27 @@ package com.example.BACKEND_HMS.service;
 
 import com.example.BACKEND_HMS.DTO.CategoryRequestDTO;
 import com.example.BACKEND_HMS.DTO.CategoryResponseDTO;
+import com.example.BACKEND_HMS.DTO.MediaUploadJobDTO;
 import com.example.BACKEND_HMS.Entity.Category;
+import com.example.BACKEND_HMS.config.CacheConfig;
+import com.example.BACKEND_HMS.event.CatalogChangedEvent;
+import com.example.BACKEND_HMS.repository.CatalogTombstoneRepository;
 import com.example.BACKEND_HMS.repository.CategoryRepository;
+import com.example.BACKEND_HMS.repository.ProductRepository;
+import com.example.BACKEND_HMS.repository.SubCategoryRepository;
+import com.example.BACKEND_HMS.utils.MediaUrls;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -17,47 +31,69 @@ import java.util.stream.Collectors;
 public class CategoryService {
 
     private final CategoryRepository    categoryRepository;
-    private final CloudinaryService     cloudinaryService;
+    private final SubCategoryRepository subCategoryRepository;
+    private final ProductRepository     productRepository;
+    private final ImagePurgeService     imagePurgeService;
+    private final MediaUploadService    mediaUploadService;
+    private final CatalogTombstoneRepository catalogTombstoneRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ─────────────────────────────────────────────
-    //  MAPPER  Entity → ResponseDTO
+    //  MAPPER  Entity → ResponseDTO  (delta sync bhi yahi use karta hai)
     // ─────────────────────────────────────────────
-    private CategoryResponseDTO toDTO(Category category) {
+    public CategoryResponseDTO toDTO(Category category) {
         return CategoryResponseDTO.builder()
                 .categoryId(category.getCategory_id())
                 .name(category.getName())
                 .description(category.getDescription())
                 .imageUrl(category.getImageUrl())
+                .thumbnailUrl(MediaUrls.derivative(category.getImageUrl(), "thumb"))
+                .listImageUrl(MediaUrls.derivative(category.getImageUrl(), "list"))
                 .isActive(category.getIsActive())
                 .createdAt(category.getCreatedAt())
+                .updatedAt(category.getUpdatedAt())
                 .build();
     }
 
     // ─────────────────────────────────────────────
     //  ADD
     // ─────────────────────────────────────────────
+    @CacheEvict(cacheNames = CacheConfig.CATEGORY_LIST, allEntries = true, beforeInvocation = true)
     public CategoryResponseDTO addCategory(CategoryRequestDTO dto) {
         Category category = Category.builder()
                 .name(dto.getName())
                 .description(dto.getDescription())
                 .isActive(dto.getIsActive() != null ? dto.getIsActive() : true)
                 .build();
-        return toDTO(categoryRepository.save(category));
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(CatalogChangedEvent.upsert(CatalogChangedEvent.Kind.CATEGORY, saved.getCategory_id()));
+        return toDTO(saved);
     }
 
     // ─────────────────────────────────────────────
     //  UPLOAD IMAGE  (separate endpoint)
     // ─────────────────────────────────────────────
-    public CategoryResponseDTO uploadImage(Long id, MultipartFile image) throws IOException {
-        Category category = getEntityById(id);
-        cloudinaryService.deleteImage(category.getImageUrl());
-        category.setImageUrl(cloudinaryService.uploadImage(image));
-        return toDTO(categoryRepository.save(category));
+    // Async - job handle turant, URL upload ke baad attachImage lagata hai
+    public MediaUploadJobDTO uploadImage(Long id, MultipartFile image) throws IOException {
+        getEntityById(id);
+        return mediaUploadService.submit(CatalogChangedEvent.Kind.CATEGORY, id, image, url -> attachImage(id, url));
+    }
+
+    // Upload worker se (uski transaction mein, row lock) - list cache CATEGORY event pe clear hoti hai
+    public void attachImage(Long id, String url) {
+        Category category = categoryRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
+        String previous = category.getImageUrl();
+        category.setImageUrl(url);
+        categoryRepository.save(category);
+        imagePurgeService.enqueue("category:" + id + ":replaced", Collections.singletonList(previous));
+        eventPublisher.publishEvent(CatalogChangedEvent.upsert(CatalogChangedEvent.Kind.CATEGORY, id));
     }
 
     // ─────────────────────────────────────────────
     //  GET ALL
     // ─────────────────────────────────────────────
+    @Cacheable(cacheNames = CacheConfig.CATEGORY_LIST, key = "'all'")
     public List<CategoryResponseDTO> getAllCategories() {
         return categoryRepository.findAll()
                 .stream()
@@ -75,32 +111,64 @@ public class CategoryService {
     // ─────────────────────────────────────────────
     //  UPDATE
     // ─────────────────────────────────────────────
+    // naam badla toh subcategory / product DTOs ka categoryName bhi purana ho jaata hai
+    @CacheEvict(cacheNames = {CacheConfig.CATEGORY_LIST, CacheConfig.SUB_CATEGORY_LIST, CacheConfig.PRODUCT_BY_ID}, allEntries = true, beforeInvocation = true)
     public CategoryResponseDTO updateCategory(Long id, CategoryRequestDTO dto) {
         Category category = getEntityById(id);
         if (dto.getName()        != null) category.setName(dto.getName());
         if (dto.getDescription() != null) category.setDescription(dto.getDescription());
         if (dto.getIsActive()    != null) category.setIsActive(dto.getIsActive());
-        return toDTO(categoryRepository.save(category));
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(CatalogChangedEvent.upsert(CatalogChangedEvent.Kind.CATEGORY, id));
+        return toDTO(saved);
     }
 
     // ─────────────────────────────────────────────
     //  DELETE BY ID
     // ─────────────────────────────────────────────
-    public void deleteCategoryById(Long id) throws IOException {
+    // subcategories + products bhi jaate hain - teen set-based DELETEs, saari images purge queue mein
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.CATEGORY_LIST, CacheConfig.SUB_CATEGORY_LIST, CacheConfig.PRODUCT_BY_ID}, allEntries = true, beforeInvocation = true)
+    public void deleteCategoryById(Long id) {
         Category category = getEntityById(id);
-        cloudinaryService.deleteImage(category.getImageUrl());
-        categoryRepository.deleteById(id);
+        List<String> images = new ArrayList<>(productRepository.findImageUrlsByCategoryId(id));
+        images.addAll(subCategoryRepository.findImageUrlsByCategoryId(id));
+        images.add(category.getImageUrl());
+
+        // Delta sync ke tombstones - rows abhi maujood hain, usi transaction mein
+        LocalDateTime now = LocalDateTime.now();
+        catalogTombstoneRepository.tombstoneProductsByCategory(id, now);
+        catalogTombstoneRepository.tombstoneSubCategoriesByCategory(id, now);
+        catalogTombstoneRepository.tombstoneCategory(id, now);
+
+        productRepository.deleteByCategoryId(id);
+        subCategoryRepository.deleteByCategoryId(id);
+        categoryRepository.deleteAllByIdInBatch(List.of(id));
+        imagePurgeService.enqueue("category:" + id, images);
+        eventPublisher.publishEvent(CatalogChangedEvent.delete(CatalogChangedEvent.Kind.CATEGORY, id));
     }
 
     // ─────────────────────────────────────────────
     //  DELETE ALL
     // ─────────────────────────────────────────────
-    public void deleteAllCategories() throws IOException {
-        List<Category> categories = categoryRepository.findAll();
-        for (Category c : categories) {
-            cloudinaryService.deleteImage(c.getImageUrl());
-        }
-        categoryRepository.deleteAll();
+    // Entities load nahi hoti - sirf image URLs, phir child → parent order mein ek-ek DELETE
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.CATEGORY_LIST, CacheConfig.SUB_CATEGORY_LIST, CacheConfig.PRODUCT_BY_ID}, allEntries = true, beforeInvocation = true)
+    public void deleteAllCategories() {
+        List<String> images = new ArrayList<>(productRepository.findAllImageUrls());
+        images.addAll(subCategoryRepository.findAllImageUrls());
+        images.addAll(categoryRepository.findAllImageUrls());
+
+        LocalDateTime now = LocalDateTime.now();
+        catalogTombstoneRepository.tombstoneAllProducts(now);
+        catalogTombstoneRepository.tombstoneAllSubCategories(now);
+        catalogTombstoneRepository.tombstoneAllCategories(now);
+
+        productRepository.deleteAllInBatch();
+        subCategoryRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+        imagePurgeService.enqueue("categories:delete-all", images);
+        eventPublisher.publishEvent(CatalogChangedEvent.deleteAll(CatalogChangedEvent.Kind.CATEGORY));
     }
 
     // ─────────────────────────────────────────────
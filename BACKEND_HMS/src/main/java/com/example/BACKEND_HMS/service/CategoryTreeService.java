@@ -0,0 +1,143 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.DTO.CategoryTreeDTO;
+import com.example.BACKEND_HMS.DTO.SubCategoryNodeDTO;
+import com.example.BACKEND_HMS.event.CatalogChangedEvent;
+import com.example.BACKEND_HMS.repository.CategoryRepository;
+import com.example.BACKEND_HMS.repository.CategoryTreeRow;
+import com.example.BACKEND_HMS.repository.SubCategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Navigation menu ka category → subcategory → product count tree.
+ *
+ * Tree ek aggregate query se banta hai aur memory mein rehta hai. Category / subcategory
+ * change pe agle read par dobara banta hai; product change pe structure wahi rehta hai, agle
+ * read par sirf counts ek GROUP BY se refresh hote hain (kitne bhi events, ek hi query).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CategoryTreeService {
+
+    private final CategoryRepository    categoryRepository;
+    private final SubCategoryRepository subCategoryRepository;
+
+    // Read path lock-free: bana hua immutable DTO list
+    private volatile List<CategoryTreeDTO> tree;
+    // Category / subcategory badli → agle read pe poora rebuild; product badla → sirf counts
+    private volatile boolean structureStale = true;
+    private volatile boolean countsStale;
+
+    // Neeche ka state sirf synchronized methods mein chhua jaata hai
+    private final List<CategoryNode> structure = new ArrayList<>();
+    private final Map<Long, Long> subCategoryCounts = new HashMap<>();
+
+    public List<CategoryTreeDTO> getTree() {
+        List<CategoryTreeDTO> current = tree;
+        return current != null && !structureStale && !countsStale ? current : refresh();
+    }
+
+    // Version bump se pehle stale mark - naye ETag pe purana tree na jaye
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.kind() != CatalogChangedEvent.Kind.PRODUCT || event.affectsAll()) {
+            structureStale = true;
+            return;
+        }
+        countsStale = true;
+    }
+
+    // ═══════════════════════════════════════════════
+    //  BUILD
+    // ═══════════════════════════════════════════════
+
+    private synchronized List<CategoryTreeDTO> refresh() {
+        // Flags query se pehle clear - query ke dauraan aaya event agle read pe phir refresh karwaye
+        boolean rebuild = structureStale || tree == null;
+        structureStale = false;
+        countsStale = false;
+        try {
+            if (rebuild) rebuildStructure();
+            else refreshCounts();
+        } catch (RuntimeException e) {
+            if (rebuild) structureStale = true;
+            else countsStale = true;
+            throw e;
+        }
+        tree = render();
+        return tree;
+    }
+
+    private void rebuildStructure() {
+        List<CategoryNode> categories = new ArrayList<>();
+        Map<Long, Long> counts = new HashMap<>();
+        Map<Long, CategoryNode> byId = new LinkedHashMap<>();
+        for (CategoryTreeRow row : categoryRepository.findTreeRows()) {
+            CategoryNode category = byId.computeIfAbsent(row.categoryId(),
+                    id -> new CategoryNode(id, row.categoryName(), row.categoryImageUrl(), new ArrayList<>()));
+            if (row.subCategoryId() == null) continue;   // bina subcategory wali category
+            category.subCategories().add(
+                    new SubCategoryNode(row.subCategoryId(), row.subCategoryName(), row.subCategoryImageUrl()));
+            counts.put(row.subCategoryId(), row.availableProducts());
+        }
+        categories.addAll(byId.values());
+
+        structure.clear();
+        structure.addAll(categories);
+        subCategoryCounts.clear();
+        subCategoryCounts.putAll(counts);
+        log.info("Category tree rebuilt ({} categories)", structure.size());
+    }
+
+    private void refreshCounts() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : subCategoryRepository.countAvailableProducts()) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        subCategoryCounts.clear();
+        subCategoryCounts.putAll(counts);
+    }
+
+    private List<CategoryTreeDTO> render() {
+        List<CategoryTreeDTO> result = new ArrayList<>(structure.size());
+        for (CategoryNode category : structure) {
+            List<SubCategoryNodeDTO> subs = new ArrayList<>(category.subCategories().size());
+            long total = 0;
+            for (SubCategoryNode sub : category.subCategories()) {
+                long count = subCategoryCounts.getOrDefault(sub.id(), 0L);
+                total += count;
+                subs.add(SubCategoryNodeDTO.builder()
+                        .subCategoryId(sub.id())
+                        .name(sub.name())
+                        .imageUrl(sub.imageUrl())
+                        .productCount(count)
+                        .build());
+            }
+            result.add(CategoryTreeDTO.builder()
+                    .categoryId(category.id())
+                    .name(category.name())
+                    .imageUrl(category.imageUrl())
+                    .productCount(total)
+                    .subCategories(List.copyOf(subs))
+                    .build());
+        }
+        return List.copyOf(result);
+    }
+
+    private record CategoryNode(Long id, String name, String imageUrl, List<SubCategoryNode> subCategories) {}
+
+    private record SubCategoryNode(Long id, String name, String imageUrl) {}
+}
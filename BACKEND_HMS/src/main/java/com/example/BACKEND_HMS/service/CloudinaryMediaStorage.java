@@ -0,0 +1,32 @@
+package com.example.BACKEND_HMS.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "media.storage", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryMediaStorage implements MediaStorage {
+
+    private final CloudinaryService cloudinaryService;
+
+    @Override
+    public String store(Path file, String key, String originalFilename, String contentType) throws IOException {
+        return cloudinaryService.uploadFile(file.toFile(), key);
+    }
+
+    @Override
+    public InputStream open(String url) throws IOException {
+        return cloudinaryService.download(url);
+    }
+
+    @Override
+    public void delete(String url) throws IOException {
+        cloudinaryService.deleteImage(url);
+    }
+}
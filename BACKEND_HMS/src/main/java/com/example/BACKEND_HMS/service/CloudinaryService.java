@@ -2,34 +2,177 @@ package com.example.BACKEND_HMS.service;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
-import lombok.RequiredArgsConstructor;
+import com.example.BACKEND_HMS.utils.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URLConnection;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Cloudinary calls ke aage resilience layer:
+ * - bulkhead: calls cloudinaryExecutor pe (bounded pool + queue), full → turant mana
+ * - timeouts: SDK ke socket / connect timeouts + poori call pe cloudinary.timeout-ms
+ * - circuit breaker: host fail ho raha ho toh calls bina network ke turant fail
+ * Mana hui calls {@link ImageHostUnavailableException} dethi hain - purge queue unhe baad
+ * mein dobara chalati hai. Host ne jawab diya (jaise invalid image ka error) toh woh host
+ * failure nahi ginta - sirf network errors, timeouts aur unexpected status codes.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class CloudinaryService {
 
+    private static final long BULKHEAD_RETRY_AFTER_MS = 1000;
+
     private final Cloudinary cloudinary;
+    private final ExecutorService executor;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final long timeoutMs;
+    private final int connectTimeoutMs;
+
+    public CloudinaryService(Cloudinary cloudinary,
+                             @Qualifier("cloudinaryExecutor") ExecutorService executor,
+                             MeterRegistry meterRegistry,
+                             @Value("${cloudinary.timeout-ms:15000}") long timeoutMs,
+                             @Value("${cloudinary.connect-timeout-ms:3000}") int connectTimeoutMs,
+                             @Value("${cloudinary.breaker.window-size:20}") int windowSize,
+                             @Value("${cloudinary.breaker.minimum-calls:10}") int minimumCalls,
+                             @Value("${cloudinary.breaker.failure-rate-threshold:50}") int failureRateThreshold,
+                             @Value("${cloudinary.breaker.open-ms:30000}") long openMs) {
+        this.cloudinary = cloudinary;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.timeoutMs = timeoutMs;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.circuitBreaker = new CircuitBreaker(windowSize, minimumCalls, failureRateThreshold, openMs);
+        meterRegistry.gauge("cloudinary.circuit.state", circuitBreaker, cb -> cb.getState().ordinal());
+    }
+
+    // File se upload - SDK multipart body file se stream karta hai, byte[] heap pe nahi banta.
+    // publicId = content hash, toh same image dobara upload ho bhi jaaye toh same asset / URL
+    public String uploadFile(File file, String publicId) throws IOException {
+        return call("upload", () -> {
+            Map uploadResult = cloudinary.uploader().upload(
+                    file,
+                    ObjectUtils.asMap(
+                            "folder", "hms_images",
+                            "public_id", publicId,
+                            "overwrite", false,
+                            "unique_filename", false,
+                            "timeout", (int) timeoutMs,
+                            "connect_timeout", connectTimeoutMs)
+            );
+            return (String) uploadResult.get("secure_url");
+        });
+    }
 
-    public String uploadImage(MultipartFile file) throws IOException {
-        Map uploadResult = cloudinary.uploader().upload(
-                file.getBytes(),
-                ObjectUtils.asMap("folder", "hms_images")
-        );
-        return (String) uploadResult.get("secure_url");
+    // Poori image bulkhead thread pe hi padh lete hain - caller ke haath mein slow stream na aaye
+    public InputStream download(String imageUrl) throws IOException {
+        byte[] bytes = call("download", () -> {
+            URLConnection connection = URI.create(imageUrl).toURL().openConnection();
+            connection.setConnectTimeout(connectTimeoutMs);
+            connection.setReadTimeout((int) timeoutMs);
+            try (InputStream in = connection.getInputStream()) {
+                return in.readAllBytes();
+            }
+        });
+        return new ByteArrayInputStream(bytes);
     }
 
     public void deleteImage(String imageUrl) throws IOException {
         if (imageUrl != null && !imageUrl.isEmpty()) {
             String publicId = extractPublicId(imageUrl);
-            cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+            call("delete", () -> cloudinary.uploader().destroy(publicId, ObjectUtils.asMap(
+                    "timeout", (int) timeoutMs,
+                    "connect_timeout", connectTimeoutMs)));
         }
     }
 
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    // ─────────────────────────────────────────────
+    //  RESILIENCE
+    // ─────────────────────────────────────────────
+
+    private <T> T call(String operation, Callable<T> work) throws IOException {
+        long retryAfterMs = circuitBreaker.tryAcquire();
+        if (retryAfterMs > 0) {
+            record(operation, "short_circuited");
+            throw new ImageHostUnavailableException("Image host unavailable (circuit open)", retryAfterMs);
+        }
+
+        Future<T> future;
+        try {
+            future = executor.submit(work);
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.onIgnored();
+            record(operation, "rejected");
+            throw new ImageHostUnavailableException("Image host busy, too many calls in progress",
+                    BULKHEAD_RETRY_AFTER_MS);
+        }
+
+        try {
+            T result = future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            circuitBreaker.onSuccess();
+            record(operation, "success");
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            circuitBreaker.onFailure();
+            record(operation, "timeout");
+            throw new IOException("Image host " + operation + " timed out after " + timeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            circuitBreaker.onIgnored();
+            throw new InterruptedIOException("Interrupted during image host " + operation);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (isHostFailure(cause)) {
+                circuitBreaker.onFailure();
+                record(operation, "failure");
+            } else {
+                circuitBreaker.onSuccess();
+                record(operation, "rejected_by_host");
+            }
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IOException(cause);
+        }
+    }
+
+    // SDK API errors RuntimeException hote hain - host ne jawab diya toh woh host ki bimaari nahi
+    private static boolean isHostFailure(Throwable cause) {
+        if (cause instanceof IOException) return true;
+        String message = cause.getMessage();
+        return message != null
+                && (message.startsWith("Server returned unexpected status code")
+                || message.startsWith("Invalid JSON response from server"));
+    }
+
+    private void record(String operation, String outcome) {
+        meterRegistry.counter("cloudinary.calls", "operation", operation, "outcome", outcome).increment();
+    }
+
     private String extractPublicId(String imageUrl) {
         // URL format: https://res.cloudinary.com/demo/image/upload/v123/hms_images/filename.jpg
         String[] parts = imageUrl.split("/");
@@ -40,4 +183,4 @@ public class CloudinaryService {
                 : fileWithExt;
         return folder + "/" + filename;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,21 @@
+package com.example.BACKEND_HMS.service;
+
+import java.io.IOException;
+
+/**
+ * Image host ko call bheji hi nahi gayi - circuit open hai ya bulkhead full.
+ * retryAfterMs ke baad dobara try karna theek hai (purge queue yahi karti hai).
+ */
+public class ImageHostUnavailableException extends IOException {
+
+    private final long retryAfterMs;
+
+    public ImageHostUnavailableException(String message, long retryAfterMs) {
+        super(message);
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.DTO.ImagePurgeJobDTO;
+import com.example.BACKEND_HMS.DTO.ImagePurgeStatusDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Delete ke baad bachi hui images ({@link MediaStorage}) background mein hatata hai.
+ *
+ * Delete wala transaction sirf URLs yahan de deta hai; commit ke baad hi purge shuru hota hai
+ * (rollback hua toh images bachi rehti hain). Remote deletes imagePurgeExecutor pe chalte hain -
+ * parallelism pool size se bounded, fail hone par exponential backoff ke saath retry.
+ * Har enqueue ek job hai jiska progress admin dekh sakta hai.
+ *
+ * Images content-addressed hain ({@link MediaAssetService}) - enqueue har URL ka ek reference
+ * chhodta hai aur storage se sirf woh hatate hain jinka aakhri reference gaya.
+ *
+ * Image host mana kare ({@link ImageHostUnavailableException} - circuit open / bulkhead full)
+ * toh attempt nahi ginta: delete retryAfter ke baad dobara, media.purge.max-defer-ms tak.
+ */
+@Slf4j
+@Service
+public class ImagePurgeService {
+
+    private static final int MAX_FAILED_URLS_PER_JOB = 100;
+
+    private final MediaAssetService mediaAssetService;
+    private final ScheduledExecutorService executor;
+    private final Counter deletedCounter;
+    private final Counter failedCounter;
+    private final Counter retryCounter;
+    private final Counter deferredCounter;
+
+    private final AtomicLong jobSequence = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+    private final Cache<Long, PurgeJob> jobs;
+
+    @Value("${media.purge.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${media.purge.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${media.purge.max-defer-ms:86400000}")
+    private long maxDeferMs;
+
+    public ImagePurgeService(MediaAssetService mediaAssetService,
+                             @Qualifier("imagePurgeExecutor") ScheduledExecutorService executor,
+                             MeterRegistry meterRegistry,
+                             @Value("${media.purge.job-history:50}") long jobHistory) {
+        this.mediaAssetService = mediaAssetService;
+        this.executor = executor;
+        this.deletedCounter = meterRegistry.counter("media.purge.deleted");
+        this.failedCounter = meterRegistry.counter("media.purge.failed");
+        this.retryCounter = meterRegistry.counter("media.purge.retries");
+        this.deferredCounter = meterRegistry.counter("media.purge.deferred");
+        this.jobs = Caffeine.newBuilder()
+                .maximumSize(jobHistory)
+                .expireAfterWrite(24, TimeUnit.HOURS)
+                .build();
+        meterRegistry.gauge("media.purge.pending", pending);
+    }
+
+    /**
+     * Har URL (duplicates samet - jitni entities utne references) ka reference chhodo, aur
+     * jinka aakhri reference gaya unhe purge queue mein daalo. Ref count update caller ke
+     * transaction mein hota hai; purge commit ke baad, transaction na ho toh turant.
+     */
+    public void enqueue(String reason, Collection<String> imageUrls) {
+        List<String> released = imageUrls.stream()
+                .filter(Objects::nonNull)
+                .filter(url -> !url.isBlank())
+                .collect(Collectors.toList());
+        if (released.isEmpty()) return;
+
+        Set<String> urls = new LinkedHashSet<>(mediaAssetService.release(released));
+        if (urls.isEmpty()) return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(reason, urls);
+                }
+            });
+        } else {
+            submit(reason, urls);
+        }
+    }
+
+    public ImagePurgeStatusDTO status() {
+        return ImagePurgeStatusDTO.builder()
+                .pending(pending.get())
+                .deleted((long) deletedCounter.count())
+                .failed((long) failedCounter.count())
+                .retries((long) retryCounter.count())
+                .recentJobs(jobs.asMap().values().stream()
+                        .sorted(Comparator.comparing((PurgeJob job) -> job.id).reversed())
+                        .map(PurgeJob::toDTO)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    public ImagePurgeJobDTO getJob(Long jobId) {
+        PurgeJob job = jobs.getIfPresent(jobId);
+        if (job == null) throw new RuntimeException("Image purge job not found with id: " + jobId);
+        return job.toDTO();
+    }
+
+    // ═══════════════════════════════════════════════
+    //  WORKERS
+    // ═══════════════════════════════════════════════
+
+    private void submit(String reason, Set<String> urls) {
+        PurgeJob job = new PurgeJob(jobSequence.incrementAndGet(), reason, urls.size());
+        jobs.put(job.id, job);
+        pending.addAndGet(urls.size());
+        log.info("Image purge job {} ({}): {} images queued", job.id, reason, urls.size());
+        for (String url : urls) {
+            schedule(job, url, 1, 0);
+        }
+    }
+
+    private void schedule(PurgeJob job, String url, int attempt, long delayMs) {
+        try {
+            executor.schedule(() -> attempt(job, url, attempt), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutdown chal raha hai - image Cloudinary pe reh jaayegi
+            giveUp(job, url, e);
+        }
+    }
+
+    private void attempt(PurgeJob job, String url, int attempt) {
+        try {
+            // Asset row lock ke andar - beech mein same content dobara upload hua toh file nahi hatti
+            mediaAssetService.purge(url);
+            job.deleted.incrementAndGet();
+            deletedCounter.increment();
+            pending.decrementAndGet();
+            job.finishIfDone();
+        } catch (ImageHostUnavailableException e) {
+            if (System.currentTimeMillis() - job.createdAtMillis < maxDeferMs) {
+                deferredCounter.increment();
+                schedule(job, url, attempt, e.getRetryAfterMs());
+            } else {
+                giveUp(job, url, e);
+            }
+        } catch (Exception e) {
+            if (attempt < maxAttempts) {
+                retryCounter.increment();
+                schedule(job, url, attempt + 1, retryBackoffMs << (attempt - 1));
+            } else {
+                giveUp(job, url, e);
+            }
+        }
+    }
+
+    private void giveUp(PurgeJob job, String url, Exception cause) {
+        log.warn("Image purge job {}: giving up on {} after {} attempts", job.id, url, maxAttempts, cause);
+        job.fail(url);
+        failedCounter.increment();
+        pending.decrementAndGet();
+        job.finishIfDone();
+    }
+
+    private static final class PurgeJob {
+        private final long id;
+        private final String reason;
+        private final int total;
+        private final AtomicInteger deleted = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final List<String> failedUrls = new ArrayList<>();
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final long createdAtMillis = System.currentTimeMillis();
+        private volatile LocalDateTime finishedAt;
+
+        private PurgeJob(long id, String reason, int total) {
+            this.id = id;
+            this.reason = reason;
+            this.total = total;
+        }
+
+        void fail(String url) {
+            failed.incrementAndGet();
+            synchronized (failedUrls) {
+                if (failedUrls.size() < MAX_FAILED_URLS_PER_JOB) failedUrls.add(url);
+            }
+        }
+
+        void finishIfDone() {
+            if (deleted.get() + failed.get() == total) finishedAt = LocalDateTime.now();
+        }
+
+        ImagePurgeJobDTO toDTO() {
+            int done = deleted.get() + failed.get();
+            List<String> failedSnapshot;
+            synchronized (failedUrls) {
+                failedSnapshot = List.copyOf(failedUrls);
+            }
+            return ImagePurgeJobDTO.builder()
+                    .jobId(id)
+                    .reason(reason)
+                    .total(total)
+                    .deleted(deleted.get())
+                    .failed(failed.get())
+                    .pending(total - done)
+                    .finished(done == total)
+                    .createdAt(createdAt)
+                    .finishedAt(finishedAt)
+                    .failedUrls(failedSnapshot)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.DTO.StockConflictDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Stock ka atomic, set-based hisaab. Check aur decrement ek hi conditional UPDATE mein
+ * (WHERE stock_quantity - reserved_quantity >= q) - do checkouts dono "stock hai" dekh ke
+ * oversell nahi kar sakte, aur koi pessimistic row lock / SELECT FOR UPDATE nahi chahiye.
+ * Online payment wale orders ka stock {@link StockReservationService} mein hold hota hai
+ * (products.reserved_quantity) - woh bhi isi tarah ka conditional UPDATE.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventoryService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StockReservationService reservationService;
+
+    /**
+     * productId → quantity, saari lines ek JDBC batch mein. Rows hamesha id order mein lock
+     * hoti hain, isliye overlapping carts wale do checkouts deadlock nahi karte. Doosre orders
+     * ke holds ko chhoo nahi sakte - condition stock - reserved pe.
+     * Ek bhi line fail → StockConflictException (sirf fail hui lines ke saath); caller ki
+     * transaction rollback hote hi baaki decrements bhi wapas.
+     *
+     * @param names conflict message ke liye (product delete ho gaya ho tab bhi naam mile)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void decrement(Map<Long, Integer> quantities, Map<Long, String> names) {
+        if (quantities.isEmpty()) return;
+        SortedMap<Long, Integer> ordered = new TreeMap<>(quantities);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> args = new ArrayList<>(ordered.size());
+        ordered.forEach((productId, quantity) -> args.add(new Object[]{quantity, now, productId, quantity}));
+        int[] counts = jdbcTemplate.batchUpdate(
+                "UPDATE products SET stock_quantity = stock_quantity - ?, updated_at = ? "
+                        + "WHERE product_id = ? AND stock_quantity - reserved_quantity >= ?", args);
+
+        List<Long> failed = new ArrayList<>();
+        int i = 0;
+        for (Long productId : ordered.keySet()) {
+            if (counts[i++] == 0) failed.add(productId);
+        }
+        if (!failed.isEmpty()) throw new StockConflictException(conflicts(failed, ordered, names));
+    }
+
+    /**
+     * Online payment: stock abhi kam nahi hota, TTL tak hold hota hai. Check aur hold ek hi
+     * conditional UPDATE (reserved_quantity + q), toh do checkouts - kisi bhi instance pe - ek hi
+     * bacha hua unit hold nahi kar sakte. Kam padi lines → StockConflictException, sab rollback.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Long orderId, Map<Long, Integer> quantities, Map<Long, String> names) {
+        if (quantities.isEmpty()) return;
+        SortedMap<Long, Integer> ordered = new TreeMap<>(quantities);
+        List<Long> failed = reservationService.hold(orderId, ordered);
+        if (!failed.isEmpty()) throw new StockConflictException(conflicts(failed, ordered, names));
+    }
+
+    /**
+     * Payment ho gaya - order ke holds pakke decrement ban jaate hain (ek batch, id order).
+     * Hold ne yeh quantity pehle hi rok rakhi thi (release ne reserved_quantity se hata di),
+     * isliye yahan condition nahi.
+     * Khaali map = koi hold nahi mila (expire / release ho chuka, ya pehle hi convert).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Integer> commitReservation(Long orderId) {
+        Map<Long, Integer> released = reservationService.release(orderId);
+        if (released.isEmpty()) return released;
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(released.size());
+        released.forEach((productId, quantity) -> args.add(new Object[]{quantity, now, productId}));
+        jdbcTemplate.batchUpdate(
+                "UPDATE products SET stock_quantity = stock_quantity - ?, updated_at = ? WHERE product_id = ?",
+                args);
+        return released;
+    }
+
+    // productId → {name, stock - reserved}
+    private Map<Long, Object[]> currentStock(Collection<Long> productIds) {
+        Map<Long, Object[]> current = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT product_id, name, stock_quantity - reserved_quantity FROM products WHERE product_id IN ("
+                        + productIds.stream().map(id -> "?").collect(Collectors.joining(",")) + ")",
+                rs -> {
+                    current.put(rs.getLong(1), new Object[]{rs.getString(2), rs.getInt(3)});
+                },
+                productIds.toArray());
+        return current;
+    }
+
+    // Fail hui lines ka abhi ka stock - batch count sirf "nahi hua" batata hai, kyun nahi
+    private List<StockConflictDTO> conflicts(List<Long> failed, Map<Long, Integer> quantities,
+                                             Map<Long, String> names) {
+        return conflicts(failed, quantities, names, currentStock(failed));
+    }
+
+    private List<StockConflictDTO> conflicts(List<Long> failed, Map<Long, Integer> quantities,
+                                             Map<Long, String> names, Map<Long, Object[]> current) {
+        return failed.stream().map(productId -> {
+            Object[] row = current.get(productId);
+            return StockConflictDTO.builder()
+                    .productId(productId)
+                    .productName(row != null ? (String) row[0] : names.get(productId))
+                    .requested(quantities.get(productId))
+                    .available(row != null ? Math.max((Integer) row[1], 0) : 0)
+                    .build();
+        }).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.BACKEND_HMS.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Bade list endpoints ke liye streaming JSON array - DB cursor se ek row padho, DTO banao,
+ * seedha response stream pe likho. Har chunk ke baad persistence context clear hota hai,
+ * toh heap row count ke saath nahi badhta.
+ *
+ * Caller ka read-only transaction chalu hona chahiye (Stream query usi pe khuli rehti hai).
+ * Beech mein error aaya toh response already commit ho chuka hota hai - client ko adhoora
+ * JSON milega, status code nahi badal sakta.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonStreamWriter {
+
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    @Value("${app.streaming.chunk-size:100}")
+    private int chunkSize;
+
+    public <E, D> void writeArray(OutputStream out, Stream<E> rows, Function<E, D> mapper) throws IOException {
+        writeArray(out, rows, chunk -> { }, mapper);
+    }
+
+    /**
+     * prefetch har chunk pe mapping se pehle chalta hai - jaise chunk ke saare orders ke items
+     * ek query mein laana. (Stream se rows ek-ek aati hain, toh Hibernate ka batch fetch
+     * aage wali rows nahi dekh pata - yeh kaam yahan explicitly hota hai.)
+     */
+    public <E, D> void writeArray(OutputStream out, Stream<E> rows,
+                                  Consumer<List<E>> prefetch, Function<E, D> mapper) throws IOException {
+        // writeValue default mein har row ke baad flush karta hai - flush sirf chunk ke end pe
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<E> stream = rows;
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            Iterator<E> iterator = stream.iterator();
+            List<E> chunk = new ArrayList<>(chunkSize);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize) writeChunk(writer, generator, chunk, prefetch, mapper);
+            }
+            writeChunk(writer, generator, chunk, prefetch, mapper);
+            generator.writeEndArray();
+        }
+    }
+
+    private <E, D> void writeChunk(ObjectWriter writer, JsonGenerator generator, List<E> chunk,
+                                   Consumer<List<E>> prefetch, Function<E, D> mapper) throws IOException {
+        if (chunk.isEmpty()) return;
+        prefetch.accept(chunk);
+        for (E row : chunk) {
+            writer.writeValue(generator, mapper.apply(row));
+        }
+        chunk.clear();
+        entityManager.clear();   // is chunk ke entities detach - GC le jaaye
+        generator.flush();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.BACKEND_HMS.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+/**
+ * Local disk storage - files media.local.dir mein, /media/** pe serve hoti hain
+ * (LocalMediaWebConfig). Internet / Cloudinary account ke bina app aur tests chalte hain.
+ */
+@Service
+@ConditionalOnProperty(name = "media.storage", havingValue = "local")
+public class LocalMediaStorage implements MediaStorage {
+
+    public static final String URL_PREFIX = "/media/";
+
+    private final Path root;
+    private final String baseUrl;
+
+    public LocalMediaStorage(@Value("${media.local.dir:media}") String dir,
+                             @Value("${media.local.base-url:}") String baseUrl) throws IOException {
+        this.root = Paths.get(dir).toAbsolutePath().normalize();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        Files.createDirectories(root);
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    @Override
+    public String store(Path file, String key, String originalFilename, String contentType) throws IOException {
+        String name = key + extension(originalFilename);
+        Path target = root.resolve(name);
+        if (!Files.exists(target)) {
+            // Temp naam se copy, phir atomic rename - aadhi likhi file kabhi serve na ho
+            Path tmp = root.resolve(UUID.randomUUID() + ".part");
+            Files.copy(file, tmp);
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Same content parallel mein aa gaya - wahi bytes, koi farak nahi
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+        return baseUrl + URL_PREFIX + name;
+    }
+
+    @Override
+    public InputStream open(String url) throws IOException {
+        Path target = resolve(url);
+        if (target == null) throw new IOException("Not a local media URL: " + url);
+        return Files.newInputStream(target);
+    }
+
+    @Override
+    public void delete(String url) throws IOException {
+        Path target = resolve(url);
+        if (target != null) Files.deleteIfExists(target);
+    }
+
+    private Path resolve(String url) {
+        String prefix = baseUrl + URL_PREFIX;
+        if (url == null || !url.startsWith(prefix)) return null;
+        Path target = root.resolve(url.substring(prefix.length())).normalize();
+        return target.startsWith(root) ? target : null;   // ../ wale URLs se bahar ki file nahi
+    }
+
+    private static String extension(String filename) {
+        if (filename == null) return "";
+        int dot = filename.lastIndexOf('.');
+        if (dot < 0 || dot == filename.length() - 1) return "";
+        String ext = filename.substring(dot).toLowerCase();
+        return ext.matches("\\.[a-z0-9]{1,5}") ? ext : "";
+    }
+}
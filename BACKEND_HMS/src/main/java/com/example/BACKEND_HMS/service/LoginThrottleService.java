@@ -0,0 +1,88 @@
+package com.example.BACKEND_HMS.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Login storm se bachao - per-IP failed logins aur per-account attempts (success pe reset) gin'ta hai.
+ * Counters AtomicInteger hain (lock-free); window khatam hote hi Caffeine entry expire kar deta hai.
+ *
+ * IP sirf bad credentials pe gina jaata hai - reverse proxy / NAT ke peeche sab users ek address
+ * share karte hain, normal logins se koi block na ho. Client IP request.getRemoteAddr() se aata hai;
+ * proxy ke peeche deploy pe {@code server.forward-headers-strategy=native} (ya {@code framework})
+ * set karna zaroori hai, taaki woh X-Forwarded-For / Forwarded header wala asli client address de.
+ */
+@Service
+public class LoginThrottleService {
+
+    private final Cache<String, AtomicInteger> ipFailures;
+    private final Cache<String, AtomicInteger> accountAttempts;
+    private final int maxFailuresPerIp;
+    private final int maxFailuresPerAccount;
+    private final Counter throttled;
+
+    public LoginThrottleService(@Value("${auth.throttle.window-seconds:300}") long windowSeconds,
+                                @Value("${auth.throttle.max-failures-per-ip:50}") int maxFailuresPerIp,
+                                @Value("${auth.throttle.max-failures-per-account:5}") int maxFailuresPerAccount,
+                                MeterRegistry meterRegistry) {
+        Duration window = Duration.ofSeconds(windowSeconds);
+        this.ipFailures = Caffeine.newBuilder().expireAfterWrite(window).maximumSize(100_000).build();
+        this.accountAttempts = Caffeine.newBuilder().expireAfterWrite(window).maximumSize(100_000).build();
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.maxFailuresPerAccount = maxFailuresPerAccount;
+        this.throttled = meterRegistry.counter("auth.login.throttled");
+    }
+
+    /**
+     * Hash karne se pehle hi check - blocked request pe BCrypt ka CPU kharch nahi hota.
+     * Account ka attempt yahin atomic increment-and-test se gina jaata hai (pehle fail maan ke),
+     * taaki ek saath bheje gaye parallel logins sab ek saath check pass na kar sakein.
+     * Success pe {@link #recordSuccess}, aur credentials ke alawa fail (503 wagairah) pe
+     * {@link #releaseAttempt} counter theek karte hain. IP ka counter yahan sirf padha jaata hai -
+     * badhta {@link #recordFailure} se hai.
+     */
+    public void checkAllowed(String email, String clientIp) {
+        AtomicInteger failures = clientIp != null ? ipFailures.getIfPresent(clientIp) : null;
+        if (failures != null && failures.get() >= maxFailuresPerIp) {
+            reject();
+        }
+        if (email != null
+                && accountAttempts.get(key(email), k -> new AtomicInteger()).incrementAndGet() > maxFailuresPerAccount) {
+            reject();
+        }
+    }
+
+    // Attempt credentials ki wajah se fail nahi hua (pool busy, timeout) - account pe mat gino
+    public void releaseAttempt(String email) {
+        AtomicInteger attempts = email != null ? accountAttempts.getIfPresent(key(email)) : null;
+        if (attempts != null) attempts.updateAndGet(n -> Math.max(n - 1, 0));
+    }
+
+    // Bad credentials - IP ka failure count
+    public void recordFailure(String clientIp) {
+        if (clientIp != null) ipFailures.get(clientIp, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void recordSuccess(String email) {
+        if (email != null) accountAttempts.invalidate(key(email));
+    }
+
+    private static String key(String email) {
+        return email.trim().toLowerCase();
+    }
+
+    private void reject() {
+        throttled.increment();
+        throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                "Too many login attempts, please try again later");
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.Entity.MediaAsset;
+import com.example.BACKEND_HMS.repository.MediaAssetRepository;
+import com.example.BACKEND_HMS.utils.MediaUrls;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Content-addressed images ke reference counts.
+ *
+ * acquire: same sha256 pehle se store hai toh sirf refCount++ (remote upload skip), warna
+ * sha256 ko hi storage key bana ke upload. release: entity delete / image replace pe
+ * refCount--, aur sirf jinka aakhri reference gaya wahi purge ke liye wapas aate hain.
+ * Jo URLs yahan track nahi hain (purane uploads) woh seedha purge hote hain, pehle jaise.
+ *
+ * refCount 0 wali row purge worker hi hatata hai, storage delete ke saath ek row lock mein -
+ * tab tak same content ka acquire usi row ko wapas le leta hai (file abhi maujood hai).
+ */
+@Service
+@RequiredArgsConstructor
+public class MediaAssetService {
+
+    private static final int IN_CHUNK = 500;
+
+    private final MediaAssetRepository mediaAssetRepository;
+    private final MediaStorage mediaStorage;
+    private final MediaDerivativeService mediaDerivativeService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** Ek reference lo - URL wapas (naya upload sirf tab jab yeh content pehli baar aaya). */
+    public String acquire(Path file, String sha256, String originalFilename, String contentType) throws IOException {
+        while (true) {
+            // retain purge worker ke row lock pe rukta hai - row mili toh file bhi abhi maujood hai
+            String existing = transactionTemplate.execute(status ->
+                    mediaAssetRepository.retain(sha256) > 0
+                            ? mediaAssetRepository.findUrlBySha256(sha256).orElse(null)
+                            : null);
+            if (existing != null) {
+                meterRegistry.counter("media.dedup.hits").increment();
+                return existing;
+            }
+
+            String url = mediaStorage.store(file, sha256, originalFilename, contentType);
+            try {
+                transactionTemplate.executeWithoutResult(status -> mediaAssetRepository.save(MediaAsset.builder()
+                        .sha256(sha256)
+                        .url(url)
+                        .contentType(contentType)
+                        .sizeBytes(sizeOf(file))
+                        .refCount(1)
+                        .createdAt(LocalDateTime.now())
+                        .build()));
+                return url;
+            } catch (DataIntegrityViolationException e) {
+                // Same content ki row pehle se (doosra upload, ya purge ke intezaar mein) - upar retain
+                // usi ko le lega; purge ne beech mein hata di ho toh dobara store + insert
+            }
+        }
+    }
+
+    /**
+     * Har URL occurrence ek reference chhodta hai (same URL 5 products pe tha → 5).
+     * Wapas: woh URLs jinhe ab storage se hatana hai. Caller ke transaction mein chalta hai.
+     */
+    public List<String> release(Collection<String> urls) {
+        if (urls.isEmpty()) return List.of();
+        Map<String, Long> counts = urls.stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+        return transactionTemplate.execute(status -> {
+            Set<String> tracked = new HashSet<>();
+            for (List<String> chunk : chunks(counts.keySet())) {
+                tracked.addAll(mediaAssetRepository.findTrackedUrls(chunk));
+            }
+            List<String> toPurge = new ArrayList<>();
+            counts.keySet().stream().filter(url -> !tracked.contains(url)).forEach(toPurge::add);
+            if (tracked.isEmpty()) return toPurge;
+
+            // Zyada tar URLs ek hi baar aate hain - count ke hisaab se group karke set-based UPDATE
+            Map<Long, List<String>> byCount = tracked.stream()
+                    .collect(Collectors.groupingBy(counts::get));
+            byCount.forEach((count, group) -> {
+                for (List<String> chunk : chunks(group)) {
+                    mediaAssetRepository.release(chunk, count.intValue());
+                }
+            });
+            // Rows yahin nahi hatti - purge() storage ke saath hatata hai
+            for (List<String> chunk : chunks(tracked)) {
+                toPurge.addAll(mediaAssetRepository.findUnreferencedUrls(chunk));
+            }
+            return toPurge;
+        });
+    }
+
+    /**
+     * Purge worker ka delete - asset row FOR UPDATE lock ke andar. Beech mein same content
+     * dobara aaya (refCount > 0) toh kuch nahi; row pehle hi ja chuki toh kisi aur purge ne
+     * hata di - ab woh file shayad naye upload ki hai, mat chhuo. Purane (non-hash) URLs seedha.
+     */
+    public void purge(String url) throws IOException {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Optional<MediaAsset> asset = mediaAssetRepository.findByUrlForUpdate(url);
+                String sha256 = MediaUrls.sha256Of(url);
+                if (asset.isEmpty() ? sha256 != null : asset.get().getRefCount() > 0) return;
+                try {
+                    mediaStorage.delete(url);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                mediaDerivativeService.evict(sha256);
+                asset.ifPresent(mediaAssetRepository::delete);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static List<List<String>> chunks(Collection<String> values) {
+        List<String> list = new ArrayList<>(values);
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += IN_CHUNK) {
+            chunks.add(list.subList(from, Math.min(from + IN_CHUNK, list.size())));
+        }
+        return chunks;
+    }
+
+    private static Long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.repository.MediaAssetRepository;
+import com.example.BACKEND_HMS.utils.MediaUrls;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Server-side resized images (thumb / list) - har content (sha256) ke liye ek hi baar bante
+ * hain aur media.derivatives.dir mein disk pe cache rehte hain. Upload worker spooled file se
+ * turant bana deta hai; disk cache se gayab ho (naya node, cleanup) toh request original pe
+ * redirect hoti hai aur derivative media upload pool pe original storage se dobara banta hai -
+ * public endpoint ke request thread pe download / resize nahi. Mobile list views full-size image
+ * ki jagah yeh URLs use karein (ProductResponseDTO.thumbnailUrl / listImageUrl).
+ */
+@Slf4j
+@Service
+public class MediaDerivativeService {
+
+    public enum Variant {
+        THUMB("thumb"),
+        LIST("list");
+
+        private final String key;
+
+        Variant(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public static Variant fromKey(String key) {
+            for (Variant variant : values()) {
+                if (variant.key.equals(key)) return variant;
+            }
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown image variant: " + key);
+        }
+    }
+
+    private final Path root;
+    private final int thumbSize;
+    private final int listSize;
+    private final MediaStorage mediaStorage;
+    private final MediaAssetRepository mediaAssetRepository;
+    private final ExecutorService executor;
+    private final Set<String> regenerating = ConcurrentHashMap.newKeySet();
+
+    public MediaDerivativeService(@Value("${media.derivatives.dir:media-derivatives}") String dir,
+                                  @Value("${media.derivatives.thumb-size:160}") int thumbSize,
+                                  @Value("${media.derivatives.list-size:480}") int listSize,
+                                  MediaStorage mediaStorage,
+                                  MediaAssetRepository mediaAssetRepository,
+                                  @Qualifier("mediaUploadExecutor") ExecutorService executor) throws IOException {
+        this.root = Paths.get(dir).toAbsolutePath().normalize();
+        this.thumbSize = thumbSize;
+        this.listSize = listSize;
+        this.mediaStorage = mediaStorage;
+        this.mediaAssetRepository = mediaAssetRepository;
+        this.executor = executor;
+        Files.createDirectories(root);
+    }
+
+    /** Upload worker se - original abhi local disk pe hai. Image na ho toh chup-chaap skip. */
+    public void generate(Path original, String sha256) {
+        if (allExist(sha256)) return;
+        try {
+            BufferedImage image = ImageIO.read(original.toFile());
+            if (image != null) write(sha256, image);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not generate derivatives for {}", sha256, e);
+        }
+    }
+
+    /** Disk pe cached derivative - na ho toh empty (banao {@link #regenerate} se). */
+    public Optional<Path> find(String sha256, Variant variant) {
+        if (!MediaUrls.isSha256(sha256)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found");
+        }
+        Path path = pathOf(sha256, variant);
+        return Files.exists(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Original ka URL lautao aur derivatives media upload pool pe banwao - ek sha256 ka ek hi
+     * kaam queue mein. Pool bhara ho toh kuch nahi, agli miss phir koshish karegi.
+     */
+    public String regenerate(String sha256) {
+        String url = mediaAssetRepository.findUrlBySha256(sha256)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found"));
+        if (regenerating.add(sha256)) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        regenerateFromStorage(sha256, url);
+                    } finally {
+                        regenerating.remove(sha256);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                regenerating.remove(sha256);
+            }
+        }
+        return url;
+    }
+
+    // Asset ka aakhri reference gaya - uske derivatives bhi hatao
+    public void evict(String sha256) {
+        if (!MediaUrls.isSha256(sha256)) return;
+        for (Variant variant : Variant.values()) {
+            try {
+                Files.deleteIfExists(pathOf(sha256, variant));
+            } catch (IOException e) {
+                log.warn("Could not delete derivative {} of {}", variant.key(), sha256, e);
+            }
+        }
+    }
+
+    // ─────────────────────────────────────────────
+    //  HELPERS
+    // ─────────────────────────────────────────────
+
+    private void regenerateFromStorage(String sha256, String url) {
+        if (allExist(sha256)) return;
+        try (InputStream in = mediaStorage.open(url)) {
+            BufferedImage image = ImageIO.read(in);
+            if (image != null) write(sha256, image);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not regenerate derivatives for {}", sha256, e);
+        }
+    }
+
+    private boolean allExist(String sha256) {
+        for (Variant variant : Variant.values()) {
+            if (!Files.exists(pathOf(sha256, variant))) return false;
+        }
+        return true;
+    }
+
+    private Path pathOf(String sha256, Variant variant) {
+        // 2-char fan-out, ek directory mein lakhon files na hon
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256 + "-" + variant.key() + ".jpg");
+    }
+
+    private void write(String sha256, BufferedImage image) throws IOException {
+        for (Variant variant : Variant.values()) {
+            Path target = pathOf(sha256, variant);
+            if (Files.exists(target)) continue;
+            Files.createDirectories(target.getParent());
+            BufferedImage resized = resize(image, variant == Variant.THUMB ? thumbSize : listSize);
+            Path tmp = target.resolveSibling(UUID.randomUUID() + ".part");
+            try {
+                if (!ImageIO.write(resized, "jpg", tmp.toFile())) {
+                    throw new IOException("No JPEG writer available");
+                }
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Doosri request ne bana diya - same bytes
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    /**
+     * Lambi side maxSize tak (upscale kabhi nahi). Bade factor pe ek hi bilinear step aliasing
+     * deta hai, isliye aadha-aadha karke utarte hain. Output RGB - transparency white pe.
+     */
+    static BufferedImage resize(BufferedImage source, int maxSize) {
+        double scale = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(current, 0, 0, width, height, null);
+            g.dispose();
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.BACKEND_HMS.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Image storage backend. media.storage=cloudinary (default) ya local - local disk wala
+ * offline dev / tests ke liye. Upload hamesha disk pe spooled file se hota hai,
+ * bytes heap mein nahi aate.
+ */
+public interface MediaStorage {
+
+    /**
+     * File ko key (content ka sha256) naam se store karo aur public URL wapas do.
+     * Same key dobara aaye toh same URL - content-addressed, overwrite ki zaroorat nahi.
+     */
+    String store(Path file, String key, String originalFilename, String contentType) throws IOException;
+
+    /** Stored asset padho - derivatives dobara banane ke liye. */
+    InputStream open(String url) throws IOException;
+
+    /** URL wala asset hatao. Jo URL is backend ka nahi hai use ignore karo. */
+    void delete(String url) throws IOException;
+}
@@ -0,0 +1,183 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.DTO.MediaUploadJobDTO;
+import com.example.BACKEND_HMS.event.CatalogChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * uploadImage endpoints ka async pipeline.
+ *
+ * Request thread sirf multipart ko spool dir mein le jaata hai (Tomcat ki temp file rename /
+ * stream copy - heap mein poori image nahi) aur job handle lauta deta hai. mediaUploadExecutor
+ * pe file ka sha256 banta hai - {@link MediaAssetService} same content pehle se hone par upload
+ * skip karke reference badha deta hai - thumb / list derivatives banakar attach callback URL
+ * entity pe lagata hai - ek transaction mein, taaki attach ka row lock purana URL padhne se
+ * naya lagane tak rahe. Attach fail hua (jaise entity beech mein delete ho gayi) toh liya hua
+ * reference purge queue ke through chhod diya jaata hai.
+ *
+ * Job sirf uploader (ya ADMIN) dekh sakta hai - baaki ke liye 404, jaise job hai hi nahi.
+ */
+@Slf4j
+@Service
+public class MediaUploadService {
+
+    private final MediaAssetService mediaAssetService;
+    private final MediaDerivativeService mediaDerivativeService;
+    private final ExecutorService executor;
+    private final ImagePurgeService imagePurgeService;
+    private final TransactionTemplate transactionTemplate;
+    private final Path spoolDir;
+
+    private final AtomicLong jobSequence = new AtomicLong();
+    private final Cache<Long, UploadJob> jobs;
+
+    public MediaUploadService(MediaAssetService mediaAssetService,
+                              MediaDerivativeService mediaDerivativeService,
+                              @Qualifier("mediaUploadExecutor") ExecutorService executor,
+                              ImagePurgeService imagePurgeService,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${media.upload.spool-dir:${java.io.tmpdir}/hms-upload-spool}") String spoolDir,
+                              @Value("${media.upload.job-history:1000}") long jobHistory) throws IOException {
+        this.mediaAssetService = mediaAssetService;
+        this.mediaDerivativeService = mediaDerivativeService;
+        this.executor = executor;
+        this.imagePurgeService = imagePurgeService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.spoolDir = Paths.get(spoolDir).toAbsolutePath().normalize();
+        this.jobs = Caffeine.newBuilder()
+                .maximumSize(jobHistory)
+                .expireAfterWrite(24, TimeUnit.HOURS)
+                .build();
+        Files.createDirectories(this.spoolDir);
+    }
+
+    /**
+     * Image ko spool karke upload queue mein daalo. attach worker thread pe URL ke saath
+     * chalta hai - woh entity update + purani image purge khud karta hai.
+     */
+    public MediaUploadJobDTO submit(CatalogChangedEvent.Kind targetType, Long targetId,
+                                    MultipartFile image, Consumer<String> attach) throws IOException {
+        if (image == null || image.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Image file is required");
+        }
+        String originalFilename = image.getOriginalFilename();
+        String contentType = image.getContentType();
+
+        // transferTo(File) disk wale part ko rename karta hai - copy bhi nahi
+        Path spooled = spoolDir.resolve(UUID.randomUUID() + ".upload");
+        image.transferTo(spooled.toFile());
+
+        String owner = SecurityContextHolder.getContext().getAuthentication().getName();
+        UploadJob job = new UploadJob(jobSequence.incrementAndGet(), owner, targetType, targetId);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, spooled, originalFilename, contentType, attach));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.id);
+            Files.deleteIfExists(spooled);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many uploads in progress, please try again");
+        }
+        return job.toDTO();
+    }
+
+    public MediaUploadJobDTO getJob(Long jobId, Authentication requester) {
+        UploadJob job = jobs.getIfPresent(jobId);
+        if (job == null || !(job.owner.equals(requester.getName()) || isAdmin(requester))) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload job not found with id: " + jobId);
+        }
+        return job.toDTO();
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+
+    private void run(UploadJob job, Path spooled, String originalFilename, String contentType,
+                     Consumer<String> attach) {
+        job.status = "RUNNING";
+        String url = null;
+        try {
+            String sha256 = MediaAssetService.sha256(spooled);
+            url = mediaAssetService.acquire(spooled, sha256, originalFilename, contentType);
+            mediaDerivativeService.generate(spooled, sha256);
+            String attachedUrl = url;
+            transactionTemplate.executeWithoutResult(tx -> attach.accept(attachedUrl));
+            job.url = url;
+            job.status = "DONE";
+        } catch (Exception e) {
+            log.warn("Upload job {} for {} {} failed", job.id, job.targetType, job.targetId, e);
+            job.error = e.getMessage();
+            job.status = "FAILED";
+            if (url != null) {
+                // Reference liya par entity pe nahi laga - chhod do (aakhri tha toh asset purge)
+                imagePurgeService.enqueue("upload-job:" + job.id, List.of(url));
+            }
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            try {
+                Files.deleteIfExists(spooled);
+            } catch (IOException e) {
+                log.warn("Could not delete spooled upload {}", spooled, e);
+            }
+        }
+    }
+
+    private static final class UploadJob {
+        private final long id;
+        private final String owner;
+        private final CatalogChangedEvent.Kind targetType;
+        private final Long targetId;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile String status = "QUEUED";
+        private volatile String url;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        private UploadJob(long id, String owner, CatalogChangedEvent.Kind targetType, Long targetId) {
+            this.id = id;
+            this.owner = owner;
+            this.targetType = targetType;
+            this.targetId = targetId;
+        }
+
+        MediaUploadJobDTO toDTO() {
+            return MediaUploadJobDTO.builder()
+                    .jobId(id)
+                    .status(status)
+                    .targetType(targetType.name())
+                    .targetId(targetId)
+                    .url(url)
+                    .error(error)
+                    .createdAt(createdAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
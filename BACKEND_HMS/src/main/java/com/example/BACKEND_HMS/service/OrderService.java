@@ -2,12 +2,22 @@ package com.example.BACKEND_HMS.service;
 
 import com.example.BACKEND_HMS.DTO.*;
 import com.example.BACKEND_HMS.Entity.*;
+import com.example.BACKEND_HMS.event.CatalogChangedEvent;
 
 import com.example.BACKEND_HMS.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -15,24 +25,30 @@ import java.util.stream.Collectors;
 public class OrderService {
 
     private final OrderRepository orderRepository;
-    private final CartRepository cartRepository;
     private final CartService cartService;
-    private final UserRepository userRepository;
+    private final CartStore cartStore;
     private final AddressRepository addressRepository;
     private final ProductRepository productRepository;
+    private final InventoryService inventoryService;
     private final PaymentRepository paymentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JsonStreamWriter jsonStreamWriter;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
-    public OrderDTO placeOrder(String email, PlaceOrderRequest req) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public OrderDTO placeOrder(User user, PlaceOrderRequest req) {
 
-        Cart cart = cartRepository.findByUser(user)
-                .orElseThrow(() -> new RuntimeException("Cart not found"));
+        // Write-behind cart ke pending edits pehle DB mein - order usi durable cart se banta hai.
+        // Flush apni transaction mein, order wali transaction khulne se pehle (ek request = ek connection)
+        List<CartStore.Line> cartLines = cartStore.flush(user.getId());
 
-        if (cart.getCartItems().isEmpty())
+        if (cartLines.isEmpty())
             throw new RuntimeException("Cart is empty");
 
+        return transactionTemplate.execute(tx -> createOrder(user, req, cartLines));
+    }
+
+    private OrderDTO createOrder(User user, PlaceOrderRequest req, List<CartStore.Line> cartLines) {
+
         // Delivery address resolve karo
         String deliveryAddress;
         if (req.getAddressId() != null) {
@@ -60,19 +76,31 @@ public class OrderService {
 
         Order savedOrder = orderRepository.save(order);
 
-        double totalAmount = 0;
-
-        for (CartItem cartItem : cart.getCartItems()) {
-            Product product = cartItem.getProduct();
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        Map<Long, String> names = new HashMap<>();
+        for (CartStore.Line cartItem : cartLines) {
+            quantities.merge(cartItem.getProductId(), cartItem.getQuantity(), Integer::sum);
+            names.put(cartItem.getProductId(), cartItem.getProductName());
+        }
+        // COD: stock ek conditional batch UPDATE mein abhi kam. Online: payment tak sirf hold
+        // (confirm pe pakka, fail / TTL pe wapas). Koi line kam padi toh 409 aur poora order rollback
+        boolean cashOnDelivery = req.getPaymentMethod() == PaymentMethod.CASH_ON_DELIVERY;
+        List<Long> stockChanged = new ArrayList<>();
+        if (cashOnDelivery) {
+            inventoryService.decrement(quantities, names);
+            stockChanged.addAll(quantities.keySet());
+        } else {
+            inventoryService.reserve(savedOrder.getOrderId(), quantities, names);
+        }
 
-            if (product.getStockQuantity() < cartItem.getQuantity())
-                throw new RuntimeException(
-                        product.getName() + " ka stock kam ho gaya");
+        // Update ke baad load - persistence context mein taaza stock
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet())
+                .stream()
+                .collect(Collectors.toMap(Product::getProduct_id, Function.identity()));
 
-            // Stock kam karo
-            product.setStockQuantity(
-                    product.getStockQuantity() - cartItem.getQuantity());
-            productRepository.save(product);
+        double totalAmount = 0;
+        for (CartStore.Line cartItem : cartLines) {
+            Product product = products.get(cartItem.getProductId());
 
             double subtotal = cartItem.getPriceAtTime() * cartItem.getQuantity();
             totalAmount += subtotal;
@@ -108,27 +136,28 @@ public class OrderService {
         paymentRepository.save(payment);
 
         // COD toh auto confirm
-        if (req.getPaymentMethod() == PaymentMethod.CASH_ON_DELIVERY) {
+        if (cashOnDelivery) {
             savedOrder.setStatus(OrderStatus.CONFIRMED);
             orderRepository.save(savedOrder);
         }
 
-        // Cart clear karo
-        cartService.clearCart(cart);
+        // Ordered lines cart se hatao - flush ke baad aayi lines rehti hain
+        cartService.clearCart(user.getId(), cartLines);
+
+        // Stock badla - catalog version / product cache commit ke baad refresh
+        if (!stockChanged.isEmpty())
+            eventPublisher.publishEvent(CatalogChangedEvent.upsert(CatalogChangedEvent.Kind.PRODUCT, stockChanged));
 
         return buildOrderDTO(savedOrder);
     }
 
-    public List<OrderDTO> getMyOrders(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return orderRepository.findByUserOrderByCreatedAtDesc(user)
-                .stream().map(this::buildOrderDTO).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public void streamMyOrders(User user, OutputStream out) throws IOException {
+        jsonStreamWriter.writeArray(out, orderRepository.streamByUser(user),
+                orderRepository::fetchItems, this::buildOrderDTO);
     }
 
-    public OrderDTO getOrderById(String email, Long orderId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public OrderDTO getOrderById(User user, Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
@@ -139,9 +168,10 @@ public class OrderService {
         return buildOrderDTO(order);
     }
 
-    public List<OrderDTO> getAllOrders() {
-        return orderRepository.findAllByOrderByCreatedAtDesc()
-                .stream().map(this::buildOrderDTO).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public void streamAllOrders(OutputStream out) throws IOException {
+        jsonStreamWriter.writeArray(out, orderRepository.streamAll(),
+                orderRepository::fetchItems, this::buildOrderDTO);
     }
 
     @Transactional
@@ -0,0 +1,99 @@
+package com.example.BACKEND_HMS.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Password hashing (BCrypt) request thread pe nahi, passwordHashingExecutor pe chalta hai.
+ * Pool / queue full ho toh wait nahi karte - 503 turant. Hash latency "auth.password.hash"
+ * timer mein record hoti hai. Login ke liye {@link #boundedEncoder()} authentication provider
+ * mein lagta hai - pool aur timer mein sirf encode / matches, user lookup nahi.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final ExecutorService executor;
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+
+    @Value("${auth.hashing.timeout-ms:5000}")
+    private long timeoutMs;
+
+    public PasswordHashingService(@Qualifier("passwordHashingExecutor") ExecutorService executor,
+                                  PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.passwordEncoder = passwordEncoder;
+        this.meterRegistry = meterRegistry;
+        this.rejected = meterRegistry.counter("auth.password.rejected");
+    }
+
+    public String encode(String rawPassword) {
+        return run("encode", () -> passwordEncoder.encode(rawPassword));
+    }
+
+    // Same BCrypt, bas har encode / matches bulkhead pool pe
+    public PasswordEncoder boundedEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return run("encode", () -> passwordEncoder.encode(rawPassword));
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return run("matches", () -> passwordEncoder.matches(rawPassword, encodedPassword));
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return passwordEncoder.upgradeEncoding(encodedPassword);
+            }
+        };
+    }
+
+    // Hashing ka kaam bulkhead pool pe chalao aur result ka wait karo
+    private <T> T run(String operation, Supplier<T> work) {
+        Timer timer = meterRegistry.timer("auth.password.hash", "operation", operation);
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.record(work));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Server busy, please try again");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Server busy, please try again");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        } catch (ExecutionException e) {
+            // Asli exception (jaise BadCredentialsException) caller tak waise hi pahunche
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
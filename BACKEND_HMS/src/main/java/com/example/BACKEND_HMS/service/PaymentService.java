@@ -3,15 +3,22 @@ package com.example.BACKEND_HMS.service;
 import com.example.BACKEND_HMS.DTO.PaymentConfirmRequest;
 import com.example.BACKEND_HMS.Entity.Order;
 import com.example.BACKEND_HMS.Entity.OrderStatus;
+import com.example.BACKEND_HMS.Entity.OrderItem;
 import com.example.BACKEND_HMS.Entity.Payment;
 
+import com.example.BACKEND_HMS.Entity.PaymentMethod;
 import com.example.BACKEND_HMS.Entity.PaymentStatus;
+import com.example.BACKEND_HMS.event.CatalogChangedEvent;
 import com.example.BACKEND_HMS.repository.OrderRepository;
 import com.example.BACKEND_HMS.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -19,12 +26,17 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
+    private final InventoryService inventoryService;
+    private final StockReservationService reservationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ✅ FIX: method naam controller ke saath match karna chahiye
     @Transactional
     public String confirmPayment(PaymentConfirmRequest req) {
-        Payment payment = paymentRepository.findByOrder_OrderId(req.getOrderId())
+        // Row lock - hold expiry aur doosra confirm (retry / duplicate callback) isi pe rukte hain
+        Payment payment = paymentRepository.findByOrderIdForUpdate(req.getOrderId())
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
+        if (payment.getStatus() == PaymentStatus.COMPLETED) return "Payment already confirmed";
 
         payment.setStatus(PaymentStatus.COMPLETED);
         payment.setTransactionId(req.getTransactionId());
@@ -33,6 +45,26 @@ public class PaymentService {
         paymentRepository.save(payment);
 
         Order order = payment.getOrder();
+        // Online payment: hold ab pakka stock decrement. Hold nahi mila toh TTL expiry le gayi
+        // (order status pe bharosa nahi) - stock order items se dobara lo; na mile toh 409 aur
+        // kuch nahi badalta
+        if (payment.getMethod() != PaymentMethod.CASH_ON_DELIVERY) {
+            Map<Long, Integer> deducted = inventoryService.commitReservation(order.getOrderId());
+            if (deducted.isEmpty()) {
+                deducted = new HashMap<>();
+                Map<Long, String> names = new HashMap<>();
+                for (OrderItem item : order.getOrderItems()) {
+                    if (item.getProduct() == null) continue;
+                    deducted.merge(item.getProduct().getProduct_id(), item.getQuantity(), Integer::sum);
+                    names.put(item.getProduct().getProduct_id(), item.getProductName());
+                }
+                inventoryService.decrement(deducted, names);
+            }
+            if (!deducted.isEmpty())
+                eventPublisher.publishEvent(CatalogChangedEvent.upsert(
+                        CatalogChangedEvent.Kind.PRODUCT, new ArrayList<>(deducted.keySet())));
+        }
+
         order.setStatus(OrderStatus.CONFIRMED);
         orderRepository.save(order);
 
@@ -41,12 +73,15 @@ public class PaymentService {
 
     @Transactional
     public String failPayment(Long orderId) {
-        Payment payment = paymentRepository.findByOrder_OrderId(orderId)
+        Payment payment = paymentRepository.findByOrderIdForUpdate(orderId)
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
 
         payment.setStatus(PaymentStatus.FAILED);
         paymentRepository.save(payment);
 
+        // Online order ka stock kabhi kata hi nahi tha - bas hold chhodna hai
+        reservationService.release(orderId);
+
         Order order = payment.getOrder();
         order.setStatus(OrderStatus.CANCELLED);
         orderRepository.save(order);
@@ -0,0 +1,160 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.DTO.ProductBulkUpdateResultDTO;
+import com.example.BACKEND_HMS.DTO.ProductDeltaDTO;
+import com.example.BACKEND_HMS.event.CatalogChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Shaam ki repricing / stock count - hazaaron (productId, price?, stock?, isAvailable?) deltas
+ * entity load + full-row save ke bina. Har chunk ek batched UPDATE aur ek transaction hai;
+ * caches / indexes ko har chunk ke baad ek hi event milta hai. Ek chunk fail ho toh sirf woh
+ * rollback - baaki chunks chalte rehte hain, aur result mein committed / failed ids dono.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductBulkUpdateService {
+
+    // null parameter → column ki purani value (COALESCE)
+    private static final String UPDATE_SQL =
+            "update products set " +
+            "price = coalesce(?, price), " +
+            "stock_quantity = coalesce(?, stock_quantity), " +
+            "is_available = coalesce(?, is_available), " +
+            "updated_at = ? " +
+            "where product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${catalog.bulk-update.batch-size:500}")
+    private int batchSize;
+
+    @Value("${catalog.bulk-update.max-items:20000}")
+    private int maxItems;
+
+    public ProductBulkUpdateResultDTO apply(List<ProductDeltaDTO> deltas) {
+        long start = System.nanoTime();
+        if (deltas == null || deltas.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No updates given");
+        }
+        if (deltas.size() > maxItems) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxItems + " updates per request");
+        }
+
+        List<String> rejected = new ArrayList<>();
+        List<ProductDeltaDTO> valid = new ArrayList<>(deltas.size());
+        for (int i = 0; i < deltas.size(); i++) {
+            String error = validate(deltas.get(i));
+            if (error != null) {
+                rejected.add("Item " + i + ": " + error);
+            } else {
+                valid.add(deltas.get(i));
+            }
+        }
+        // Id order mein update - do parallel bulk updates ek doosre ke row locks pe deadlock na karein
+        valid.sort(Comparator.comparing(ProductDeltaDTO::getProductId));
+
+        List<Long> notFound = new ArrayList<>();
+        List<Long> updatedIds = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (int from = 0; from < valid.size(); from += batchSize) {
+            List<ProductDeltaDTO> chunk = valid.subList(from, Math.min(from + batchSize, valid.size()));
+            int[] counts;
+            try {
+                counts = transactionTemplate.execute(status -> updateChunk(chunk));
+            } catch (RuntimeException e) {
+                // Sirf yeh chunk rollback hua - pichhle committed hain, agle try honge
+                log.warn("Product bulk update chunk {}-{} failed", from, from + chunk.size() - 1, e);
+                chunk.forEach(delta -> failed.add(delta.getProductId()));
+                errors.add("Products " + chunk.get(0).getProductId() + ".." + chunk.get(chunk.size() - 1).getProductId()
+                        + ": " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                continue;
+            }
+
+            List<Long> changedIds = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                // SUCCESS_NO_INFO → driver ne count nahi bataya, update hua maan lo
+                if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                    changedIds.add(chunk.get(i).getProductId());
+                } else {
+                    notFound.add(chunk.get(i).getProductId());
+                }
+            }
+            updatedIds.addAll(changedIds);
+            if (!changedIds.isEmpty()) {
+                eventPublisher.publishEvent(CatalogChangedEvent.upsert(CatalogChangedEvent.Kind.PRODUCT, changedIds));
+            }
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Product bulk update: {} requested, {} updated, {} not found, {} rejected, {} failed in {} ms",
+                deltas.size(), updatedIds.size(), notFound.size(), rejected.size(), failed.size(), elapsedMs);
+        return ProductBulkUpdateResultDTO.builder()
+                .requested(deltas.size())
+                .updated(updatedIds.size())
+                .updatedIds(updatedIds)
+                .notFound(notFound)
+                .rejected(rejected)
+                .failed(failed)
+                .errors(errors)
+                .elapsedMs(elapsedMs)
+                .build();
+    }
+
+    private int[] updateChunk(List<ProductDeltaDTO> chunk) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ProductDeltaDTO delta = chunk.get(i);
+                // Types explicitly - PostgreSQL untyped NULL ko coalesce mein resolve nahi kar pata
+                ps.setObject(1, delta.getPrice(), Types.NUMERIC);
+                ps.setObject(2, delta.getStockQuantity(), Types.INTEGER);
+                ps.setObject(3, delta.getIsAvailable(), Types.BOOLEAN);
+                ps.setTimestamp(4, now);
+                ps.setLong(5, delta.getProductId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return chunk.size();
+            }
+        });
+    }
+
+    private static String validate(ProductDeltaDTO delta) {
+        if (delta == null || delta.getProductId() == null) return "productId is required";
+        if (delta.getPrice() == null && delta.getStockQuantity() == null && delta.getIsAvailable() == null)
+            return "nothing to update for product " + delta.getProductId();
+        if (delta.getPrice() != null && delta.getPrice().signum() < 0)
+            return "price must not be negative for product " + delta.getProductId();
+        if (delta.getStockQuantity() != null && delta.getStockQuantity() < 0)
+            return "stockQuantity must not be negative for product " + delta.getProductId();
+        return null;
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.DTO.ProductFacetRequest;
+import com.example.BACKEND_HMS.DTO.ProductFacetResultDTO;
+import com.example.BACKEND_HMS.DTO.ProductResponseDTO;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Faceted browsing ke liye per-facet-value BitSets. Har product ko ek dense slot milta hai;
+ * filter = selected values ke bitsets ka OR (facet ke andar) aur AND (facets ke beech).
+ * Counts "disjunctive" hain - facet F ke counts mein F ka apna filter nahi lagta,
+ * taaki user ek brand choose karke bhi baaki brands ke counts dekh sake.
+ */
+public class ProductFacetIndex implements ProductIndex {
+
+    public enum Facet {
+        BRAND("brand"), UNIT("unit"), PRICE_BAND("priceBand"), AVAILABILITY("isAvailable"), SUB_CATEGORY("subCategoryId");
+
+        private final String key;
+
+        Facet(String key) { this.key = key; }
+    }
+
+    // Upper bounds (exclusive) - last band open ended
+    private static final int[] PRICE_BAND_LIMITS = {50, 100, 200, 500};
+
+    private final Map<Long, Integer> slotByProduct = new HashMap<>();
+    private final List<ProductResponseDTO> docs = new ArrayList<>();
+    private final List<Map<Facet, String>> docValues = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private final Map<Facet, Map<String, BitSet>> postings = new EnumMap<>(Facet.class);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductFacetIndex() {
+        for (Facet f : Facet.values()) postings.put(f, new TreeMap<>());
+    }
+
+    @Override
+    public void replaceAll(List<ProductResponseDTO> products) {
+        lock.writeLock().lock();
+        try {
+            slotByProduct.clear();
+            docs.clear();
+            docValues.clear();
+            freeSlots.clear();
+            live.clear();
+            postings.values().forEach(Map::clear);
+            products.forEach(this::addInternal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(ProductResponseDTO product) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(product.getProductId());
+            addInternal(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ProductFacetResultDTO query(ProductFacetRequest req, int page, int size) {
+        lock.readLock().lock();
+        try {
+            Map<Facet, BitSet> selections = new EnumMap<>(Facet.class);
+            select(selections, Facet.BRAND, req.getBrand());
+            select(selections, Facet.UNIT, req.getUnit());
+            select(selections, Facet.PRICE_BAND, req.getPriceBand());
+            select(selections, Facet.SUB_CATEGORY, req.getSubCategoryId() == null ? null
+                    : req.getSubCategoryId().stream().map(String::valueOf).toList());
+            select(selections, Facet.AVAILABILITY, req.getIsAvailable() == null ? null
+                    : List.of(String.valueOf(req.getIsAvailable())));
+
+            BitSet result = intersect(selections, null);
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            for (Facet facet : Facet.values()) {
+                BitSet base = intersect(selections, facet);
+                Map<String, Integer> counts = new LinkedHashMap<>();
+                postings.get(facet).forEach((value, bits) -> {
+                    BitSet hit = (BitSet) bits.clone();
+                    hit.and(base);
+                    int count = hit.cardinality();
+                    if (count > 0) counts.put(value, count);
+                });
+                facets.put(facet.key, counts);
+            }
+
+            // Slot order mein page - rebuild ke baad id order, par naya product delete hue product ka
+            // khaali slot le leta hai (upsert apna hi slot rakhta hai), toh order stable hai, id order nahi.
+            // skip long mein - bahut bada page overflow karke pehla page na lauta de
+            int total = result.cardinality();
+            List<ProductResponseDTO> items = new ArrayList<>(size);
+            long skip = (long) page * size;
+            if (skip < total) {
+                for (int slot = result.nextSetBit(0); slot >= 0 && items.size() < size; slot = result.nextSetBit(slot + 1)) {
+                    if (skip-- > 0) continue;
+                    items.add(docs.get(slot));
+                }
+            }
+
+            return ProductFacetResultDTO.builder()
+                    .items(items)
+                    .total(total)
+                    .page(page)
+                    .size(size)
+                    .facets(facets)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ─────────────────────────────────────────────
+    //  INTERNAL (lock pakad ke hi call karo)
+    // ─────────────────────────────────────────────
+    private void select(Map<Facet, BitSet> selections, Facet facet, List<String> values) {
+        if (values == null || values.isEmpty()) return;
+        BitSet union = new BitSet();
+        for (String v : values) {
+            BitSet bits = postings.get(facet).get(v);
+            if (bits != null) union.or(bits);
+        }
+        selections.put(facet, union);
+    }
+
+    private BitSet intersect(Map<Facet, BitSet> selections, Facet skip) {
+        BitSet bits = (BitSet) live.clone();
+        selections.forEach((facet, selected) -> {
+            if (facet != skip) bits.and(selected);
+        });
+        return bits;
+    }
+
+    private void addInternal(ProductResponseDTO dto) {
+        int slot = freeSlots.isEmpty() ? docs.size() : freeSlots.pop();
+        Map<Facet, String> values = new EnumMap<>(Facet.class);
+        put(values, Facet.BRAND, dto.getBrand());
+        put(values, Facet.UNIT, dto.getUnit());
+        put(values, Facet.PRICE_BAND, priceBand(dto.getPrice()));
+        put(values, Facet.AVAILABILITY, String.valueOf(Boolean.TRUE.equals(dto.getIsAvailable())));
+        put(values, Facet.SUB_CATEGORY, dto.getSubCategoryId() != null ? String.valueOf(dto.getSubCategoryId()) : null);
+
+        if (slot == docs.size()) {
+            docs.add(dto);
+            docValues.add(values);
+        } else {
+            docs.set(slot, dto);
+            docValues.set(slot, values);
+        }
+        slotByProduct.put(dto.getProductId(), slot);
+        live.set(slot);
+        values.forEach((facet, value) ->
+                postings.get(facet).computeIfAbsent(value, v -> new BitSet()).set(slot));
+    }
+
+    private void removeInternal(Long productId) {
+        Integer slot = slotByProduct.remove(productId);
+        if (slot == null) return;
+        docValues.get(slot).forEach((facet, value) -> {
+            BitSet bits = postings.get(facet).get(value);
+            if (bits == null) return;
+            bits.clear(slot);
+            if (bits.isEmpty()) postings.get(facet).remove(value);
+        });
+        docs.set(slot, null);
+        docValues.set(slot, Map.of());
+        live.clear(slot);
+        freeSlots.push(slot);
+    }
+
+    private static void put(Map<Facet, String> values, Facet facet, String value) {
+        if (value != null && !value.isBlank()) values.put(facet, value);
+    }
+
+    static String priceBand(BigDecimal price) {
+        if (price == null) return null;
+        int lower = 0;
+        for (int limit : PRICE_BAND_LIMITS) {
+            if (price.compareTo(BigDecimal.valueOf(limit)) < 0) return lower + "-" + limit;
+            lower = limit;
+        }
+        return lower + "+";
+    }
+}
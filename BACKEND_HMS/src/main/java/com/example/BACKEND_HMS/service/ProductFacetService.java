@@ -0,0 +1,29 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.DTO.ProductFacetRequest;
+import com.example.BACKEND_HMS.DTO.ProductFacetResultDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Faceted catalog browsing - filter click pe table scan nahi, sirf {@link ProductFacetIndex}
+ * ke bitmap intersections. Index {@link CatalogIndexRefresher} search index ke saath update karta hai.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductFacetService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ProductFacetIndex index = new ProductFacetIndex();
+
+    ProductIndex index() {
+        return index;
+    }
+
+    public ProductFacetResultDTO search(ProductFacetRequest req) {
+        int size = req.getSize() == null ? 20 : Math.max(1, Math.min(req.getSize(), MAX_PAGE_SIZE));
+        int page = req.getPage() == null ? 0 : Math.max(0, req.getPage());
+        return index.query(req, page, size);
+    }
+}
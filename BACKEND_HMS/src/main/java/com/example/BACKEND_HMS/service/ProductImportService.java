@@ -0,0 +1,289 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.DTO.ProductImportErrorDTO;
+import com.example.BACKEND_HMS.DTO.ProductImportResultDTO;
+import com.example.BACKEND_HMS.DTO.ProductRequestDTO;
+import com.example.BACKEND_HMS.event.CatalogChangedEvent;
+import com.example.BACKEND_HMS.repository.SubCategoryRepository;
+import com.example.BACKEND_HMS.utils.CsvRecordReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Supplier catalog ka bulk import - CSV ya NDJSON, request stream se seedha padha jaata hai
+ * (poora upload memory mein nahi aata). Valid rows JDBC batches mein insert hoti hain, har batch
+ * apne transaction mein; galat rows ka row number + reason result mein wapas jaata hai.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format fromContentType(String contentType) {
+            if (contentType != null && contentType.toLowerCase().startsWith("text/csv")) return CSV;
+            if (contentType != null && contentType.toLowerCase().startsWith("application/x-ndjson")) return NDJSON;
+            throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                    "Use text/csv or application/x-ndjson");
+        }
+    }
+
+    private static final String INSERT_SQL =
+            "insert into products (name, description, price, stock_quantity, unit, brand, is_available, " +
+            "created_at, updated_at, sub_category_id) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final Set<String> REQUIRED_CSV_COLUMNS = Set.of("name", "price", "subcategoryid");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SubCategoryRepository subCategoryRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${catalog.import.batch-size:1000}")
+    private int batchSize;
+
+    // Itne se zyada errors list mein nahi jaate - sirf failed count badhta hai
+    @Value("${catalog.import.max-errors:1000}")
+    private int maxErrors;
+
+    public ProductImportResultDTO importProducts(InputStream in, Format format) throws IOException {
+        long start = System.nanoTime();
+        ImportRun run = new ImportRun(new HashSet<>(subCategoryRepository.findAllIds()));
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            readCsv(reader, run);
+        } else {
+            readNdjson(reader, run);
+        }
+        run.flush();
+
+        // Search / facet index, category tree, caches - sab ek hi baar refresh
+        if (run.imported > 0) {
+            eventPublisher.publishEvent(CatalogChangedEvent.upsertAll(CatalogChangedEvent.Kind.PRODUCT));
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Product import: {} rows, {} imported, {} failed in {} ms",
+                run.totalRows, run.imported, run.failed, elapsedMs);
+        return ProductImportResultDTO.builder()
+                .totalRows(run.totalRows)
+                .imported(run.imported)
+                .failed(run.failed)
+                .errors(run.errors)
+                .errorsTruncated(run.failed > run.errors.size())
+                .elapsedMs(elapsedMs)
+                .build();
+    }
+
+    // ═══════════════════════════════════════════════
+    //  PARSING
+    // ═══════════════════════════════════════════════
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) return;
+
+        // Header naam se column index - "subCategoryId", "sub_category_id" dono chalega
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").trim().replace("_", "").toLowerCase();
+            columns.put(name, i);
+        }
+        if (!columns.keySet().containsAll(REQUIRED_CSV_COLUMNS)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "CSV header must contain name, price and subCategoryId");
+        }
+
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) continue;   // khaali line
+            long row = ++run.totalRows;
+            try {
+                ProductRequestDTO dto = new ProductRequestDTO();
+                dto.setName(column(record, columns, "name"));
+                dto.setDescription(column(record, columns, "description"));
+                dto.setPrice(toDecimal(column(record, columns, "price"), "price"));
+                dto.setStockQuantity(toInteger(column(record, columns, "stockquantity"), "stockQuantity"));
+                dto.setUnit(column(record, columns, "unit"));
+                dto.setBrand(column(record, columns, "brand"));
+                dto.setIsAvailable(toBoolean(column(record, columns, "isavailable")));
+                dto.setSubCategoryId(toLong(column(record, columns, "subcategoryid"), "subCategoryId"));
+                run.accept(row, dto);
+            } catch (IllegalArgumentException e) {
+                run.reject(row, e.getMessage());
+            }
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+            long row = ++run.totalRows;
+            try {
+                run.accept(row, objectMapper.readValue(line, ProductRequestDTO.class));
+            } catch (JsonProcessingException e) {
+                run.reject(row, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) return null;
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static BigDecimal toDecimal(String value, String field) {
+        if (value == null) return null;
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + value);
+        }
+    }
+
+    private static Integer toInteger(String value, String field) {
+        if (value == null) return null;
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a whole number: " + value);
+        }
+    }
+
+    private static Long toLong(String value, String field) {
+        if (value == null) return null;
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a whole number: " + value);
+        }
+    }
+
+    private static Boolean toBoolean(String value) {
+        if (value == null) return null;
+        return switch (value.toLowerCase()) {
+            case "true", "1", "yes", "y" -> true;
+            case "false", "0", "no", "n" -> false;
+            default -> throw new IllegalArgumentException("isAvailable must be true or false: " + value);
+        };
+    }
+
+    // ═══════════════════════════════════════════════
+    //  VALIDATION + BATCH WRITE
+    // ═══════════════════════════════════════════════
+
+    private final class ImportRun {
+
+        private final Set<Long> subCategoryIds;
+        private final List<Object[]> pending = new ArrayList<>();
+        private final List<Long> pendingRows = new ArrayList<>();
+        private final List<ProductImportErrorDTO> errors = new ArrayList<>();
+        private long totalRows;
+        private long imported;
+        private long failed;
+
+        private ImportRun(Set<Long> subCategoryIds) {
+            this.subCategoryIds = subCategoryIds;
+        }
+
+        void accept(long row, ProductRequestDTO dto) {
+            String error = validate(dto);
+            if (error != null) {
+                reject(row, error);
+                return;
+            }
+            pending.add(new Object[] {
+                    dto.getName().trim(),
+                    dto.getDescription(),
+                    dto.getPrice(),
+                    dto.getStockQuantity() != null ? dto.getStockQuantity() : 0,
+                    dto.getUnit(),
+                    dto.getBrand(),
+                    dto.getIsAvailable() != null ? dto.getIsAvailable() : true,
+                    null,   // created_at / updated_at flush pe bharte hain
+                    null,
+                    dto.getSubCategoryId()
+            });
+            pendingRows.add(row);
+            if (pending.size() >= batchSize) flush();
+        }
+
+        void reject(long row, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ProductImportErrorDTO(row, message));
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) return;
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (Object[] args : pending) {
+                args[7] = now;
+                args[8] = now;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, pending));
+                imported += pending.size();
+            } catch (DataAccessException e) {
+                // Poora batch rollback hua - uske saare rows failed
+                String reason = "Batch insert failed: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                pendingRows.forEach(row -> reject(row, reason));
+                log.warn("Product import batch of {} rows failed", pending.size(), e);
+            }
+            pending.clear();
+            pendingRows.clear();
+        }
+
+        private String validate(ProductRequestDTO dto) {
+            if (dto.getName() == null || dto.getName().isBlank()) return "name is required";
+            if (dto.getName().trim().length() > 255) return "name is longer than 255 characters";
+            if (dto.getDescription() != null && dto.getDescription().length() > 2000)
+                return "description is longer than 2000 characters";
+            if (dto.getPrice() == null) return "price is required";
+            if (dto.getPrice().signum() < 0) return "price must not be negative";
+            if (dto.getStockQuantity() != null && dto.getStockQuantity() < 0)
+                return "stockQuantity must not be negative";
+            if (dto.getUnit() != null && dto.getUnit().length() > 255) return "unit is longer than 255 characters";
+            if (dto.getBrand() != null && dto.getBrand().length() > 255) return "brand is longer than 255 characters";
+            if (dto.getSubCategoryId() == null) return "subCategoryId is required";
+            if (!subCategoryIds.contains(dto.getSubCategoryId()))
+                return "SubCategory not found with id: " + dto.getSubCategoryId();
+            return null;
+        }
+    }
+}
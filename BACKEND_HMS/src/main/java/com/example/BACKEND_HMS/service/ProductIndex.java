@@ -0,0 +1,15 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.DTO.ProductResponseDTO;
+
+import java.util.List;
+
+// In-memory product indexes (search, facets) - {@link CatalogIndexRefresher} inhe ek saath update karta hai
+public interface ProductIndex {
+
+    void replaceAll(List<ProductResponseDTO> products);
+
+    void upsert(ProductResponseDTO product);
+
+    void remove(Long productId);
+}
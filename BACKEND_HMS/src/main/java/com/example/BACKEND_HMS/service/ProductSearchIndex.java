@@ -0,0 +1,255 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.DTO.ProductResponseDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index products ke liye (name, brand, description, subcategory / category names).
+ *
+ *  term → (productId → weight)   exact match postings
+ *  sorted vocabulary             prefix autocomplete
+ *  trigram → terms               typo tolerance (candidate terms, phir edit distance)
+ *
+ * Reads bahut, writes kam - isliye ek ReadWriteLock kaafi hai.
+ */
+public class ProductSearchIndex implements ProductIndex {
+
+    private static final float NAME_WEIGHT        = 3.0f;
+    private static final float BRAND_WEIGHT       = 2.0f;
+    private static final float CATEGORY_WEIGHT    = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final float EXACT_FACTOR  = 1.0f;
+    private static final float PREFIX_FACTOR = 0.7f;
+    private static final float FUZZY_FACTOR  = 0.5f;
+
+    private static final int MAX_PREFIX_TERMS = 50;
+
+    private final Map<Long, ProductResponseDTO> docs = new HashMap<>();
+    private final Map<Long, Set<String>> docTerms = new HashMap<>();
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private final NavigableSet<String> vocabulary = new TreeSet<>();
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void replaceAll(List<ProductResponseDTO> products) {
+        lock.writeLock().lock();
+        try {
+            docs.clear();
+            docTerms.clear();
+            postings.clear();
+            vocabulary.clear();
+            trigrams.clear();
+            products.forEach(this::addInternal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(ProductResponseDTO product) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(product.getProductId());
+            addInternal(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Har query token exact, prefix (sirf last token) ya fuzzy match ho sakta hai.
+     * Ranking: pehle zyada tokens match karne wale, phir total score.
+     */
+    public List<ProductResponseDTO> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) return List.of();
+
+        lock.readLock().lock();
+        try {
+            Map<Long, float[]> scores = new HashMap<>();   // [matchedTokens, score]
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean last = i == tokens.size() - 1;
+                Map<Long, Float> tokenScores = scoreToken(tokens.get(i), last);
+                tokenScores.forEach((id, score) -> {
+                    float[] s = scores.computeIfAbsent(id, k -> new float[2]);
+                    s[0] += 1;
+                    s[1] += score;
+                });
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Comparator.<Map.Entry<Long, float[]>>comparingDouble(e -> -e.getValue()[0])
+                            .thenComparingDouble(e -> -e.getValue()[1])
+                            .thenComparing(Map.Entry::getKey))
+                    .limit(limit)
+                    .map(e -> docs.get(e.getKey()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Autocomplete - matching product names (distinct), best first
+    public List<String> suggest(String prefix, int limit) {
+        Set<String> names = new LinkedHashSet<>();
+        for (ProductResponseDTO dto : search(prefix, limit * 3)) {
+            names.add(dto.getName());
+            if (names.size() >= limit) break;
+        }
+        return new ArrayList<>(names);
+    }
+
+    // ─────────────────────────────────────────────
+    //  INTERNAL (lock pakad ke hi call karo)
+    // ─────────────────────────────────────────────
+    private Map<Long, Float> scoreToken(String token, boolean allowPrefix) {
+        Map<Long, Float> result = new HashMap<>();
+
+        Map<Long, Float> exact = postings.get(token);
+        if (exact != null) exact.forEach((id, w) -> result.merge(id, w * EXACT_FACTOR, Math::max));
+
+        if (allowPrefix) {
+            int taken = 0;
+            for (String term : vocabulary.subSet(token, false, token + Character.MAX_VALUE, false)) {
+                if (++taken > MAX_PREFIX_TERMS) break;
+                postings.get(term).forEach((id, w) -> result.merge(id, w * PREFIX_FACTOR, Math::max));
+            }
+        }
+
+        // Exact / prefix kuch na mile tabhi typo tolerance - warna noise badhta hai
+        if (result.isEmpty() && token.length() >= 3) {
+            int maxDistance = token.length() <= 5 ? 1 : 2;
+            for (String term : fuzzyCandidates(token)) {
+                if (editDistance(token, term, maxDistance) <= maxDistance) {
+                    postings.get(term).forEach((id, w) -> result.merge(id, w * FUZZY_FACTOR, Math::max));
+                }
+            }
+        }
+        return result;
+    }
+
+    // Jin terms ke saath kam se kam ek trigram common ho
+    private Set<String> fuzzyCandidates(String token) {
+        Set<String> candidates = new HashSet<>();
+        for (String gram : trigramsOf(token)) {
+            Set<String> terms = trigrams.get(gram);
+            if (terms != null) candidates.addAll(terms);
+        }
+        return candidates;
+    }
+
+    private void addInternal(ProductResponseDTO dto) {
+        Long id = dto.getProductId();
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, dto.getName(), NAME_WEIGHT);
+        addField(weights, dto.getBrand(), BRAND_WEIGHT);
+        addField(weights, dto.getSubCategoryName(), CATEGORY_WEIGHT);
+        addField(weights, dto.getCategoryName(), CATEGORY_WEIGHT);
+        addField(weights, dto.getDescription(), DESCRIPTION_WEIGHT);
+
+        docs.put(id, dto);
+        docTerms.put(id, weights.keySet());
+        weights.forEach((term, weight) -> {
+            Map<Long, Float> list = postings.computeIfAbsent(term, t -> {
+                vocabulary.add(t);
+                for (String gram : trigramsOf(t)) trigrams.computeIfAbsent(gram, g -> new HashSet<>()).add(t);
+                return new HashMap<>();
+            });
+            list.put(id, weight);
+        });
+    }
+
+    private void removeInternal(Long id) {
+        docs.remove(id);
+        Set<String> terms = docTerms.remove(id);
+        if (terms == null) return;
+        for (String term : terms) {
+            Map<Long, Float> list = postings.get(term);
+            if (list == null) continue;
+            list.remove(id);
+            if (list.isEmpty()) {
+                postings.remove(term);
+                vocabulary.remove(term);
+                for (String gram : trigramsOf(term)) {
+                    Set<String> set = trigrams.get(gram);
+                    if (set != null && set.remove(term) && set.isEmpty()) trigrams.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float weight) {
+        for (String token : tokenize(text)) weights.merge(token, weight, Float::sum);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) return List.of();
+        List<String> tokens = new ArrayList<>();
+        for (String t : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!t.isEmpty()) tokens.add(t);
+        }
+        return tokens;
+    }
+
+    // "$apple$" ke trigrams - boundary markers chhote words ke liye bhi grams dete hain
+    private static Set<String> trigramsOf(String term) {
+        String padded = "$" + term + "$";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) grams.add(padded.substring(i, i + 3));
+        return grams;
+    }
+
+    // Levenshtein with early exit - max se zyada hua toh max + 1
+    private static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+        int[] prev = new int[b.length() + 1];
+        int[] curr = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            curr[0] = i;
+            int rowMin = curr[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, curr[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] tmp = prev; prev = curr; curr = tmp;
+        }
+        return prev[b.length()];
+    }
+}
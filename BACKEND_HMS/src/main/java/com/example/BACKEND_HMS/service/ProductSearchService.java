@@ -0,0 +1,37 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.DTO.ProductResponseDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Product search - LIKE '%x%' table scan ki jagah in-memory {@link ProductSearchIndex}.
+ * Startup pe poora index banta hai, phir CatalogChangedEvent se incrementally - dono kaam
+ * {@link CatalogIndexRefresher} background thread pe karta hai.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductSearchService {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    ProductIndex index() {
+        return index;
+    }
+
+    public List<ProductResponseDTO> search(String query, Integer limit) {
+        return index.search(query, clamp(limit, 20));
+    }
+
+    public List<String> suggest(String prefix, Integer limit) {
+        return index.suggest(prefix, clamp(limit, 8));
+    }
+
+    private static int clamp(Integer limit, int defaultLimit) {
+        return limit == null ? defaultLimit : Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -1,16 +1,33 @@
 package com.example.BACKEND_HMS.service;
 
+import com.example.BACKEND_HMS.DTO.MediaUploadJobDTO;
+import com.example.BACKEND_HMS.DTO.ProductPageDTO;
+import com.example.BACKEND_HMS.DTO.ProductPageRequest;
 import com.example.BACKEND_HMS.DTO.ProductRequestDTO;
 import com.example.BACKEND_HMS.DTO.ProductResponseDTO;
 import com.example.BACKEND_HMS.Entity.Product;
 import com.example.BACKEND_HMS.Entity.SubCategory;
+import com.example.BACKEND_HMS.config.CacheConfig;
+import com.example.BACKEND_HMS.event.CatalogChangedEvent;
+import com.example.BACKEND_HMS.repository.CatalogTombstoneRepository;
+import com.example.BACKEND_HMS.repository.ProductKeysetCursor;
 import com.example.BACKEND_HMS.repository.ProductRepository;
+import com.example.BACKEND_HMS.utils.MediaUrls;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,12 +37,16 @@ public class ProductService {
 
     private final ProductRepository  productRepository;
     private final SubCategoryService subCategoryService;
-    private final CloudinaryService  cloudinaryService;
+    private final ImagePurgeService  imagePurgeService;
+    private final MediaUploadService mediaUploadService;
+    private final JsonStreamWriter   jsonStreamWriter;
+    private final CatalogTombstoneRepository catalogTombstoneRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ─────────────────────────────────────────────
-    //  MAPPER  Entity → ResponseDTO
+    //  MAPPER  Entity → ResponseDTO  (search index bhi yahi use karta hai)
     // ─────────────────────────────────────────────
-    private ProductResponseDTO toDTO(Product product) {
+    public ProductResponseDTO toDTO(Product product) {
         SubCategory sc = product.getSubCategory();
         return ProductResponseDTO.builder()
                 .productId(product.getProduct_id())
@@ -34,6 +55,8 @@ public class ProductService {
                 .price(product.getPrice())
                 .stockQuantity(product.getStockQuantity())
                 .imageUrl(product.getImageUrl())
+                .thumbnailUrl(MediaUrls.derivative(product.getImageUrl(), "thumb"))
+                .listImageUrl(MediaUrls.derivative(product.getImageUrl(), "list"))
                 .unit(product.getUnit())
                 .brand(product.getBrand())
                 .isAvailable(product.getIsAvailable())
@@ -61,33 +84,80 @@ public class ProductService {
                 .isAvailable(dto.getIsAvailable() != null ? dto.getIsAvailable() : true)
                 .subCategory(subCategory)
                 .build();
-        return toDTO(productRepository.save(product));
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(CatalogChangedEvent.upsert(CatalogChangedEvent.Kind.PRODUCT, saved.getProduct_id()));
+        return toDTO(saved);
     }
 
     // ─────────────────────────────────────────────
-    //  UPLOAD IMAGE  (separate endpoint)
+    //  UPLOAD IMAGE  (separate endpoint) - async, job handle turant
     // ─────────────────────────────────────────────
-    public ProductResponseDTO uploadImage(Long id, MultipartFile image) throws IOException {
-        Product product = getEntityById(id);
-        cloudinaryService.deleteImage(product.getImageUrl());
-        product.setImageUrl(cloudinaryService.uploadImage(image));
-        product.setUpdatedAt(LocalDateTime.now());
-        return toDTO(productRepository.save(product));
+    public MediaUploadJobDTO uploadImage(Long id, MultipartFile image) throws IOException {
+        getEntityById(id);   // galat id ka error abhi, upload ke baad nahi
+        return mediaUploadService.submit(CatalogChangedEvent.Kind.PRODUCT, id, image, url -> attachImage(id, url));
+    }
+
+    // Upload worker se (uski transaction mein) - row lock, taaki do uploads ek hi purana URL na chhodein.
+    // Naya URL lagao, purani image purge queue mein (productById event se evict)
+    public void attachImage(Long id, String url) {
+        Product product = productRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        String previous = product.getImageUrl();
+        product.setImageUrl(url);
+        productRepository.save(product);
+        imagePurgeService.enqueue("product:" + id + ":replaced", Collections.singletonList(previous));
+        eventPublisher.publishEvent(CatalogChangedEvent.upsert(CatalogChangedEvent.Kind.PRODUCT, id));
     }
 
     // ─────────────────────────────────────────────
     //  GET ALL
     // ─────────────────────────────────────────────
-    public List<ProductResponseDTO> getAllProducts() {
-        return productRepository.findAll()
-                .stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    // List → DTO list → JSON buffer ke bajaye seedha response stream pe (JsonStreamWriter)
+    @Transactional(readOnly = true)
+    public void streamAllProducts(OutputStream out) throws IOException {
+        jsonStreamWriter.writeArray(out, productRepository.streamAll(), this::toDTO);
+    }
+
+    // ─────────────────────────────────────────────
+    //  PAGE  (keyset / seek pagination + filters)
+    // ─────────────────────────────────────────────
+    private static final int MAX_PAGE_SIZE = 100;
+
+    public ProductPageDTO getProductPage(ProductPageRequest req) {
+        int size = req.getSize() == null ? 20 : Math.max(1, Math.min(req.getSize(), MAX_PAGE_SIZE));
+        ProductKeysetCursor.Sort sort = ProductKeysetCursor.parseSort(req.getSort());
+
+        ProductKeysetCursor after = null;
+        if (req.getCursor() != null && !req.getCursor().isBlank()) {
+            try {
+                after = ProductKeysetCursor.decode(req.getCursor(), sort);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+
+        // size + 1 row - agla page hai ya nahi, bina COUNT query ke
+        List<Product> rows = productRepository.findPage(req, after, size + 1);
+        boolean hasMore = rows.size() > size;
+        if (hasMore) rows = rows.subList(0, size);
+
+        String nextCursor = null;
+        if (hasMore) {
+            Product last = rows.get(rows.size() - 1);
+            nextCursor = new ProductKeysetCursor(sort, last.getUpdatedAt(), last.getPrice(), last.getProduct_id()).encode();
+        }
+
+        return ProductPageDTO.builder()
+                .items(rows.stream().map(this::toDTO).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
     // ─────────────────────────────────────────────
     //  GET BY ID
     // ─────────────────────────────────────────────
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_BY_ID, key = "#id")
     public ProductResponseDTO getProductById(Long id) {
         return toDTO(getEntityById(id));
     }
@@ -95,6 +165,7 @@ public class ProductService {
     // ─────────────────────────────────────────────
     //  UPDATE
     // ─────────────────────────────────────────────
+    @CachePut(cacheNames = CacheConfig.PRODUCT_BY_ID, key = "#id")
     public ProductResponseDTO updateProduct(Long id, ProductRequestDTO dto) {
         Product product = getEntityById(id);
         if (dto.getName()          != null) product.setName(dto.getName());
@@ -106,28 +177,36 @@ public class ProductService {
         if (dto.getIsAvailable()   != null) product.setIsAvailable(dto.getIsAvailable());
         if (dto.getSubCategoryId() != null)
             product.setSubCategory(subCategoryService.getEntityById(dto.getSubCategoryId()));
-        product.setUpdatedAt(LocalDateTime.now());
-        return toDTO(productRepository.save(product));
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(CatalogChangedEvent.upsert(CatalogChangedEvent.Kind.PRODUCT, id));
+        return toDTO(saved);
     }
 
     // ─────────────────────────────────────────────
     //  DELETE BY ID
     // ─────────────────────────────────────────────
-    public void deleteProductById(Long id) throws IOException {
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_BY_ID, key = "#id", beforeInvocation = true)
+    public void deleteProductById(Long id) {
         Product product = getEntityById(id);
-        cloudinaryService.deleteImage(product.getImageUrl());
-        productRepository.deleteById(id);
+        catalogTombstoneRepository.tombstoneProduct(id, LocalDateTime.now());
+        productRepository.deleteAllByIdInBatch(List.of(id));
+        imagePurgeService.enqueue("product:" + id, Collections.singletonList(product.getImageUrl()));
+        eventPublisher.publishEvent(CatalogChangedEvent.delete(CatalogChangedEvent.Kind.PRODUCT, id));
     }
 
     // ─────────────────────────────────────────────
     //  DELETE ALL
     // ─────────────────────────────────────────────
-    public void deleteAllProducts() throws IOException {
-        List<Product> products = productRepository.findAll();
-        for (Product p : products) {
-            cloudinaryService.deleteImage(p.getImageUrl());
-        }
-        productRepository.deleteAll();
+    // Ek DELETE statement; images commit ke baad background mein (ImagePurgeService)
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_BY_ID, allEntries = true, beforeInvocation = true)
+    public void deleteAllProducts() {
+        List<String> images = productRepository.findAllImageUrls();
+        catalogTombstoneRepository.tombstoneAllProducts(LocalDateTime.now());
+        productRepository.deleteAllInBatch();
+        imagePurgeService.enqueue("products:delete-all", images);
+        eventPublisher.publishEvent(CatalogChangedEvent.deleteAll(CatalogChangedEvent.Kind.PRODUCT));
     }
 
     // ─────────────────────────────────────────────
@@ -0,0 +1,29 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.DTO.StockConflictDTO;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Checkout ke waqt kuch lines ka stock kam pad gaya (409). Sirf wahi lines jo fail hui,
+ * har ek ka requested vs abhi available - client cart theek karke dobara try kare.
+ */
+public class StockConflictException extends ResponseStatusException {
+
+    private final List<StockConflictDTO> conflicts;
+
+    public StockConflictException(List<StockConflictDTO> conflicts) {
+        super(HttpStatus.CONFLICT, conflicts.stream()
+                .map(c -> c.getProductName() + " (requested " + c.getRequested()
+                        + ", available " + c.getAvailable() + ")")
+                .collect(Collectors.joining("; ", "Insufficient stock: ", "")));
+        this.conflicts = List.copyOf(conflicts);
+    }
+
+    public List<StockConflictDTO> getConflicts() {
+        return conflicts;
+    }
+}
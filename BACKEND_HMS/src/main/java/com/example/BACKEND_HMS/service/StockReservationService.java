@@ -0,0 +1,201 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.Entity.OrderStatus;
+import com.example.BACKEND_HMS.Entity.Payment;
+import com.example.BACKEND_HMS.Entity.PaymentStatus;
+import com.example.BACKEND_HMS.Entity.StockReservation;
+import com.example.BACKEND_HMS.repository.PaymentRepository;
+import com.example.BACKEND_HMS.repository.StockReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Online payment wale orders ka stock hold ledger. Har hold stock_reservations table mein
+ * (durable, TTL ke saath) aur product ka total products.reserved_quantity mein - yahi asli
+ * hisaab hai: hold ek conditional UPDATE (stock - reserved >= q) hai, toh kitne bhi instances
+ * hon, ek bacha hua unit do orders hold nahi kar sakte. Product-wise counter memory mein sirf
+ * cart ke availability check ka read cache hai (commit ke baad badalta hai, koi query nahi).
+ * Expire hue holds scheduled job release karta hai (payment FAILED, order CANCELLED).
+ */
+@Slf4j
+@Service
+public class StockReservationService {
+
+    private final StockReservationRepository reservationRepository;
+    private final PaymentRepository paymentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<Long, AtomicInteger> reserved = new ConcurrentHashMap<>();
+    private final Counter expiredHolds;
+
+    @Value("${stock.reservation.ttl-ms:900000}")
+    private long ttlMs;
+
+    @Value("${stock.reservation.expiry-batch-size:100}")
+    private int expiryBatchSize;
+
+    public StockReservationService(StockReservationRepository reservationRepository,
+                                   PaymentRepository paymentRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.reservationRepository = reservationRepository;
+        this.paymentRepository = paymentRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.expiredHolds = meterRegistry.counter("stock.reservation.expired");
+        meterRegistry.gauge("stock.reservation.held", reserved,
+                map -> map.values().stream().mapToInt(AtomicInteger::get).sum());
+    }
+
+    // Restart ke baad bhi pending holds gine jaate hain - table hi source of truth hai
+    @PostConstruct
+    void loadHolds() {
+        reservationRepository.sumByProduct().forEach(row ->
+                reserved.put(row.productId(), new AtomicInteger(row.quantity().intValue())));
+    }
+
+    /** Is product pe abhi kitna hold hai - sirf memory (read cache), koi query nahi. */
+    public int reserved(Long productId) {
+        AtomicInteger count = reserved.get(productId);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Quantities hold karo - har product ek conditional UPDATE (id order, ek batch). Wapas: jo
+     * products kam pade; khaali = sab hold ho gaye aur ledger rows likh di. Kuch kam pada toh
+     * caller exception fenke - transaction rollback baaki holds bhi wapas le leta hai.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Long> hold(Long orderId, SortedMap<Long, Integer> quantities) {
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> args.add(new Object[]{quantity, productId, quantity}));
+        int[] counts = jdbcTemplate.batchUpdate(
+                "UPDATE products SET reserved_quantity = reserved_quantity + ? "
+                        + "WHERE product_id = ? AND stock_quantity - reserved_quantity >= ?", args);
+
+        List<Long> failed = new ArrayList<>();
+        int i = 0;
+        for (Long productId : quantities.keySet()) {
+            if (counts[i++] == 0) failed.add(productId);
+        }
+        if (!failed.isEmpty()) return failed;
+
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttlMs, ChronoUnit.MILLIS);
+        reservationRepository.saveAll(quantities.entrySet().stream()
+                .map(e -> StockReservation.builder()
+                        .orderId(orderId)
+                        .productId(e.getKey())
+                        .quantity(e.getValue())
+                        .expiresAt(expiresAt)
+                        .build())
+                .collect(Collectors.toList()));
+        afterCommit(() -> quantities.forEach(this::adjust));
+        return failed;
+    }
+
+    /**
+     * Order ke saare holds hatao - productId → quantity jo release hui (reserved_quantity se bhi
+     * ghat gayi). Khaali map = holds the hi nahi (COD), ya kisi aur (confirm / expiry) ne pehle
+     * hi le liye - ledger ka DELETE count batata hai kaun jeeta.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Integer> release(Long orderId) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        reservationRepository.findByOrderId(orderId)
+                .forEach(r -> quantities.merge(r.getProductId(), r.getQuantity(), Integer::sum));
+        if (quantities.isEmpty()) return quantities;
+        if (reservationRepository.deleteByOrderId(orderId) == 0) return new TreeMap<>();
+
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> args.add(new Object[]{quantity, productId}));
+        jdbcTemplate.batchUpdate(
+                "UPDATE products SET reserved_quantity = reserved_quantity - ? WHERE product_id = ?", args);
+        afterCommit(() -> quantities.forEach((productId, quantity) -> adjust(productId, -quantity)));
+        return quantities;
+    }
+
+    // ═══════════════════════════════════════════════
+    //  EXPIRY
+    // ═══════════════════════════════════════════════
+
+    // TTL nikal gaya aur payment abhi bhi pending - hold chhodo, order cancel. Ek order fail ho
+    // toh log karke aage; orderId keyset pe, toh woh is sweep mein dobara nahi aata
+    @Scheduled(fixedDelayString = "${stock.reservation.expiry-interval-ms:60000}")
+    public void expireHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        long after = 0;
+        List<Long> orderIds;
+        do {
+            orderIds = reservationRepository.findExpiredOrderIds(now, after, PageRequest.of(0, expiryBatchSize));
+            for (Long orderId : orderIds) {
+                after = orderId;
+                try {
+                    transactionTemplate.executeWithoutResult(tx -> expire(orderId));
+                } catch (RuntimeException e) {
+                    log.warn("Stock hold expiry failed for order {}", orderId, e);
+                }
+            }
+        } while (orderIds.size() == expiryBatchSize);
+    }
+
+    private void expire(Long orderId) {
+        // Payment row lock pehle - confirm bhi yahi lock leta hai, toh dono mein se ek hi poora chalta hai
+        Optional<Payment> payment = paymentRepository.findByOrderIdForUpdate(orderId);
+        if (release(orderId).isEmpty()) return;
+        expiredHolds.increment();
+        payment.filter(p -> p.getStatus() == PaymentStatus.PENDING).ifPresent(p -> {
+            p.setStatus(PaymentStatus.FAILED);
+            if (p.getOrder().getStatus() == OrderStatus.PENDING) {
+                p.getOrder().setStatus(OrderStatus.CANCELLED);
+            }
+        });
+    }
+
+    // ─────────────────────────────────────────────
+
+    private void adjust(Long productId, int delta) {
+        reserved.compute(productId, (id, count) -> {
+            int next = (count != null ? count.get() : 0) + delta;
+            if (next <= 0) return null;
+            if (count == null) return new AtomicInteger(next);
+            count.set(next);
+            return count;
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,15 +1,28 @@
 package com.example.BACKEND_HMS.service;
 
+import com.example.BACKEND_HMS.DTO.MediaUploadJobDTO;
 import com.example.BACKEND_HMS.DTO.SubCategoryRequestDTO;
 import com.example.BACKEND_HMS.DTO.SubCategoryResponseDTO;
 import com.example.BACKEND_HMS.Entity.Category;
 import com.example.BACKEND_HMS.Entity.SubCategory;
+import com.example.BACKEND_HMS.config.CacheConfig;
+import com.example.BACKEND_HMS.event.CatalogChangedEvent;
+import com.example.BACKEND_HMS.repository.CatalogTombstoneRepository;
+import com.example.BACKEND_HMS.repository.ProductRepository;
 import com.example.BACKEND_HMS.repository.SubCategoryRepository;
+import com.example.BACKEND_HMS.utils.MediaUrls;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -19,18 +32,25 @@ public class SubCategoryService {
 
     private final SubCategoryRepository subCategoryRepository;
     private final CategoryService       categoryService;
-    private final CloudinaryService     cloudinaryService;
+    private final ProductRepository     productRepository;
+    private final ImagePurgeService     imagePurgeService;
+    private final MediaUploadService    mediaUploadService;
+    private final CatalogTombstoneRepository catalogTombstoneRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ─────────────────────────────────────────────
-    //  MAPPER  Entity → ResponseDTO
+    //  MAPPER  Entity → ResponseDTO  (delta sync bhi yahi use karta hai)
     // ─────────────────────────────────────────────
-    private SubCategoryResponseDTO toDTO(SubCategory sc) {
+    public SubCategoryResponseDTO toDTO(SubCategory sc) {
         return SubCategoryResponseDTO.builder()
                 .subCategoryId(sc.getSubCategory_id())
                 .name(sc.getName())
                 .imageUrl(sc.getImageUrl())
+                .thumbnailUrl(MediaUrls.derivative(sc.getImageUrl(), "thumb"))
+                .listImageUrl(MediaUrls.derivative(sc.getImageUrl(), "list"))
                 .isActive(sc.getIsActive())
                 .createdAt(sc.getCreatedAt())
+                .updatedAt(sc.getUpdatedAt())
                 .categoryId(sc.getCategory() != null ? sc.getCategory().getCategory_id() : null)
                 .categoryName(sc.getCategory() != null ? sc.getCategory().getName() : null)
                 .build();
@@ -39,6 +59,7 @@ public class SubCategoryService {
     // ─────────────────────────────────────────────
     //  ADD
     // ─────────────────────────────────────────────
+    @CacheEvict(cacheNames = CacheConfig.SUB_CATEGORY_LIST, allEntries = true, beforeInvocation = true)
     public SubCategoryResponseDTO addSubCategory(SubCategoryRequestDTO dto) {
         Category category = categoryService.getEntityById(dto.getCategoryId());
         SubCategory subCategory = SubCategory.builder()
@@ -46,22 +67,35 @@ public class SubCategoryService {
                 .isActive(dto.getIsActive() != null ? dto.getIsActive() : true)
                 .category(category)
                 .build();
-        return toDTO(subCategoryRepository.save(subCategory));
+        SubCategory saved = subCategoryRepository.save(subCategory);
+        eventPublisher.publishEvent(CatalogChangedEvent.upsert(CatalogChangedEvent.Kind.SUB_CATEGORY, saved.getSubCategory_id()));
+        return toDTO(saved);
     }
 
     // ─────────────────────────────────────────────
     //  UPLOAD IMAGE  (separate endpoint)
     // ─────────────────────────────────────────────
-    public SubCategoryResponseDTO uploadImage(Long id, MultipartFile image) throws IOException {
-        SubCategory sc = getEntityById(id);
-        cloudinaryService.deleteImage(sc.getImageUrl());
-        sc.setImageUrl(cloudinaryService.uploadImage(image));
-        return toDTO(subCategoryRepository.save(sc));
+    // Async - job handle turant, URL upload ke baad attachImage lagata hai
+    public MediaUploadJobDTO uploadImage(Long id, MultipartFile image) throws IOException {
+        getEntityById(id);
+        return mediaUploadService.submit(CatalogChangedEvent.Kind.SUB_CATEGORY, id, image, url -> attachImage(id, url));
+    }
+
+    // Upload worker se (uski transaction mein, row lock) - list cache SUB_CATEGORY event pe clear hoti hai
+    public void attachImage(Long id, String url) {
+        SubCategory sc = subCategoryRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("SubCategory not found with id: " + id));
+        String previous = sc.getImageUrl();
+        sc.setImageUrl(url);
+        subCategoryRepository.save(sc);
+        imagePurgeService.enqueue("subcategory:" + id + ":replaced", Collections.singletonList(previous));
+        eventPublisher.publishEvent(CatalogChangedEvent.upsert(CatalogChangedEvent.Kind.SUB_CATEGORY, id));
     }
 
     // ─────────────────────────────────────────────
     //  GET ALL
     // ─────────────────────────────────────────────
+    @Cacheable(cacheNames = CacheConfig.SUB_CATEGORY_LIST, key = "'all'")
     public List<SubCategoryResponseDTO> getAllSubCategories() {
         return subCategoryRepository.findAll()
                 .stream()
@@ -79,33 +113,58 @@ public class SubCategoryService {
     // ─────────────────────────────────────────────
     //  UPDATE
     // ─────────────────────────────────────────────
+    // naam / category badli toh product DTOs ka subCategoryName / categoryName bhi
+    @CacheEvict(cacheNames = {CacheConfig.SUB_CATEGORY_LIST, CacheConfig.PRODUCT_BY_ID}, allEntries = true, beforeInvocation = true)
     public SubCategoryResponseDTO updateSubCategory(Long id, SubCategoryRequestDTO dto) {
         SubCategory sc = getEntityById(id);
         if (dto.getName()       != null) sc.setName(dto.getName());
         if (dto.getIsActive()   != null) sc.setIsActive(dto.getIsActive());
         if (dto.getCategoryId() != null)
             sc.setCategory(categoryService.getEntityById(dto.getCategoryId()));
-        return toDTO(subCategoryRepository.save(sc));
+        SubCategory saved = subCategoryRepository.save(sc);
+        eventPublisher.publishEvent(CatalogChangedEvent.upsert(CatalogChangedEvent.Kind.SUB_CATEGORY, id));
+        return toDTO(saved);
     }
 
     // ─────────────────────────────────────────────
     //  DELETE BY ID
     // ─────────────────────────────────────────────
-    public void deleteSubCategoryById(Long id) throws IOException {
+    // products bhi jaate hain - set-based DELETEs, images purge queue mein
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.SUB_CATEGORY_LIST, CacheConfig.PRODUCT_BY_ID}, allEntries = true, beforeInvocation = true)
+    public void deleteSubCategoryById(Long id) {
         SubCategory sc = getEntityById(id);
-        cloudinaryService.deleteImage(sc.getImageUrl());
-        subCategoryRepository.deleteById(id);
+        List<String> images = new ArrayList<>(productRepository.findImageUrlsBySubCategoryId(id));
+        images.add(sc.getImageUrl());
+
+        // Delta sync ke tombstones - rows abhi maujood hain, usi transaction mein
+        LocalDateTime now = LocalDateTime.now();
+        catalogTombstoneRepository.tombstoneProductsBySubCategory(id, now);
+        catalogTombstoneRepository.tombstoneSubCategory(id, now);
+
+        productRepository.deleteBySubCategoryId(id);
+        subCategoryRepository.deleteAllByIdInBatch(List.of(id));
+        imagePurgeService.enqueue("subcategory:" + id, images);
+        eventPublisher.publishEvent(CatalogChangedEvent.delete(CatalogChangedEvent.Kind.SUB_CATEGORY, id));
     }
 
     // ─────────────────────────────────────────────
     //  DELETE ALL
     // ─────────────────────────────────────────────
-    public void deleteAllSubCategories() throws IOException {
-        List<SubCategory> list = subCategoryRepository.findAll();
-        for (SubCategory sc : list) {
-            cloudinaryService.deleteImage(sc.getImageUrl());
-        }
-        subCategoryRepository.deleteAll();
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.SUB_CATEGORY_LIST, CacheConfig.PRODUCT_BY_ID}, allEntries = true, beforeInvocation = true)
+    public void deleteAllSubCategories() {
+        List<String> images = new ArrayList<>(productRepository.findAllImageUrls());
+        images.addAll(subCategoryRepository.findAllImageUrls());
+
+        LocalDateTime now = LocalDateTime.now();
+        catalogTombstoneRepository.tombstoneAllProducts(now);
+        catalogTombstoneRepository.tombstoneAllSubCategories(now);
+
+        productRepository.deleteAllInBatch();
+        subCategoryRepository.deleteAllInBatch();
+        imagePurgeService.enqueue("subcategories:delete-all", images);
+        eventPublisher.publishEvent(CatalogChangedEvent.deleteAll(CatalogChangedEvent.Kind.SUB_CATEGORY));
     }
 
     // ─────────────────────────────────────────────
@@ -0,0 +1,25 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.Entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// User update / delete hote hi cached snapshot hatao (role ya enabled badla ho sakta hai)
+@Component
+public class UserCacheEvictionListener {
+
+    // ObjectProvider - EntityManagerFactory bante waqt cycle na bane
+    private final ObjectProvider<UserCacheService> userCacheService;
+
+    public UserCacheEvictionListener(ObjectProvider<UserCacheService> userCacheService) {
+        this.userCacheService = userCacheService;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        userCacheService.ifAvailable(cache -> cache.evict(user.getEmail()));
+    }
+}
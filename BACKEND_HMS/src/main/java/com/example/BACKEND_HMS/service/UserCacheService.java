@@ -0,0 +1,50 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.Entity.Role;
+import com.example.BACKEND_HMS.Entity.User;
+import com.example.BACKEND_HMS.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Chhota TTL cache - email → (id, role, enabled). JWT filter isse check karta hai ki
+ * token wala user abhi bhi enabled hai aur role wahi hai, bina har request DB hit kiye.
+ * User ka role / enabled badalte hi {@link UserCacheEvictionListener} entry hata deta hai.
+ */
+@Service
+public class UserCacheService {
+
+    private final UserRepository userRepository;
+    private final Cache<String, UserSnapshot> cache;
+
+    public UserCacheService(UserRepository userRepository,
+                            @Value("${auth.user-cache.max-size:10000}") long maxSize,
+                            @Value("${auth.user-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public UserSnapshot get(String email) {
+        return cache.get(email, key -> userRepository.findByEmail(key)
+                .map(UserSnapshot::of)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found")));
+    }
+
+    public void evict(String email) {
+        if (email != null) cache.invalidate(email);
+    }
+
+    public record UserSnapshot(Long id, String email, Role role, boolean enabled) {
+        static UserSnapshot of(User user) {
+            return new UserSnapshot(user.getId(), user.getEmail(), user.getRole(), user.isEnabled());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.BACKEND_HMS.utils;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Chhota count-based circuit breaker - aakhri windowSize calls mein failure rate threshold
+ * se upar (aur kam se kam minimumCalls hue) toh OPEN: openMs tak calls turant mana.
+ * Phir HALF_OPEN - ek probe call jaati hai; pass → CLOSED, fail → phir OPEN.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openMs;
+    private final LongSupplier clock;
+
+    // Ring buffer - true = failure
+    private final boolean[] outcomes;
+    private int next;
+    private int calls;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, long openMs) {
+        this(windowSize, minimumCalls, failureRateThreshold, openMs, System::currentTimeMillis);
+    }
+
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, long openMs,
+                          LongSupplier clock) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openMs = openMs;
+        this.clock = clock;
+        this.outcomes = new boolean[windowSize];
+    }
+
+    /** 0 → call jaa sakti hai; warna kitne ms baad dobara try karna. */
+    public synchronized long tryAcquire() {
+        switch (state) {
+            case OPEN -> {
+                long remaining = openedAt + openMs - clock.getAsLong();
+                if (remaining > 0) return remaining;
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return 0;
+            }
+            case HALF_OPEN -> {
+                if (probeInFlight) return openMs;
+                probeInFlight = true;
+                return 0;
+            }
+            default -> {
+                return 0;
+            }
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            reset();
+            state = State.CLOSED;
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (calls >= minimumCalls && failures * 100 >= failureRateThreshold * calls) open();
+    }
+
+    // Call host tak gayi hi nahi (jaise bulkhead full) - probe slot wapas
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (calls == windowSize) {
+            if (outcomes[next]) failures--;
+        } else {
+            calls++;
+        }
+        outcomes[next] = failure;
+        if (failure) failures++;
+        next = (next + 1) % windowSize;
+    }
+
+    private void open() {
+        reset();
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+    }
+
+    private void reset() {
+        next = 0;
+        calls = 0;
+        failures = 0;
+        probeInFlight = false;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.BACKEND_HMS.utils;
+
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed image URLs ke helpers. Stored file ka naam uska sha256 hota hai
+ * (local: /media/&lt;sha&gt;.png, Cloudinary: .../hms_images/&lt;sha&gt;.png), isliye derivative
+ * URL bina DB lookup ke ban jaata hai. Purane (non-hash) URLs ke liye null.
+ */
+public final class MediaUrls {
+
+    public static final String DERIVED_PREFIX = "/media/derived/";
+
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+
+    private MediaUrls() {
+    }
+
+    public static boolean isSha256(String value) {
+        return value != null && SHA256.matcher(value).matches();
+    }
+
+    public static String sha256Of(String url) {
+        if (url == null) return null;
+        String name = url.substring(url.lastIndexOf('/') + 1);
+        int dot = name.indexOf('.');
+        if (dot >= 0) name = name.substring(0, dot);
+        return isSha256(name) ? name : null;
+    }
+
+    /** variant = "thumb" / "list" */
+    public static String derivative(String imageUrl, String variant) {
+        String sha = sha256Of(imageUrl);
+        return sha == null ? null : DERIVED_PREFIX + sha + "/" + variant + ".jpg";
+    }
+}
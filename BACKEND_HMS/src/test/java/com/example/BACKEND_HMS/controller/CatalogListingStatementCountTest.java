@@ -0,0 +1,112 @@
+package com.example.BACKEND_HMS.controller;
+
+import com.example.BACKEND_HMS.Entity.Category;
+import com.example.BACKEND_HMS.Entity.Product;
+import com.example.BACKEND_HMS.Entity.SubCategory;
+import com.example.BACKEND_HMS.repository.CategoryRepository;
+import com.example.BACKEND_HMS.repository.ProductRepository;
+import com.example.BACKEND_HMS.repository.SubCategoryRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Listing endpoints N+1 mein wapas na jaayein - har listing ek hi SQL statement honi chahiye
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "USER")
+class CatalogListingStatementCountTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private SubCategoryRepository subCategoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CacheManager cacheManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void seedCatalog() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Cache hit pe 0 statements honge - yahan DB path hi check karna hai
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        if (productRepository.count() > 0) return;
+
+        for (int c = 0; c < 3; c++) {
+            Category category = categoryRepository.save(Category.builder()
+                    .name("Category " + c).isActive(true).build());
+            for (int s = 0; s < 3; s++) {
+                SubCategory subCategory = subCategoryRepository.save(SubCategory.builder()
+                        .name("Sub " + c + "-" + s).isActive(true).category(category).build());
+                for (int p = 0; p < 4; p++) {
+                    productRepository.save(Product.builder()
+                            .name("Product " + c + "-" + s + "-" + p)
+                            .price(BigDecimal.valueOf(10 + p))
+                            .stockQuantity(100)
+                            .brand("Brand " + p)
+                            .unit("kg")
+                            .isAvailable(true)
+                            .subCategory(subCategory)
+                            .build());
+                }
+            }
+        }
+    }
+
+    @Test
+    void productListingIsOneStatement() throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/api/products/all"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].categoryName").exists());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void productPageIsOneStatement() throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/api/products/page").param("size", "10").param("sort", "price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(10))
+                .andExpect(jsonPath("$.items[0].subCategoryName").exists());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void subCategoryListingIsOneStatement() throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/api/subcategories/all"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].categoryName").exists());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void categoryTreeIsServedFromMemory() throws Exception {
+        mockMvc.perform(get("/api/categories/tree"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].productCount").value(12))
+                .andExpect(jsonPath("$[0].subCategories[0].productCount").value(4));
+
+        statistics.clear();
+        mockMvc.perform(get("/api/categories/tree"))
+                .andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+}
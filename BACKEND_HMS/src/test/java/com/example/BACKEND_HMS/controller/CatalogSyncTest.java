@@ -0,0 +1,71 @@
+package com.example.BACKEND_HMS.controller;
+
+import com.example.BACKEND_HMS.Entity.Category;
+import com.example.BACKEND_HMS.Entity.Product;
+import com.example.BACKEND_HMS.Entity.SubCategory;
+import com.example.BACKEND_HMS.repository.CategoryRepository;
+import com.example.BACKEND_HMS.repository.ProductRepository;
+import com.example.BACKEND_HMS.repository.SubCategoryRepository;
+import com.example.BACKEND_HMS.service.SubCategoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Delta sync: badle rows upserts mein, cascade se delete hue rows tombstones mein
+@SpringBootTest(properties = "catalog.sync.overlap-seconds=0")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "USER")
+@Transactional   // rollback - image purge (afterCommit) bhi kabhi trigger nahi hota
+class CatalogSyncTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private SubCategoryRepository subCategoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private SubCategoryService subCategoryService;
+
+    @Test
+    void returnsChangesAndTombstonesSinceWatermark() throws Exception {
+        Category category = categoryRepository.save(Category.builder().name("Sync Category").isActive(true).build());
+        SubCategory doomed = subCategoryRepository.save(SubCategory.builder()
+                .name("Sync Doomed").isActive(true).category(category).build());
+        Product doomedProduct = productRepository.save(Product.builder()
+                .name("Sync Doomed Product").price(BigDecimal.ONE).isAvailable(true).subCategory(doomed).build());
+        long watermark = System.currentTimeMillis();
+        Thread.sleep(5);
+
+        SubCategory fresh = subCategoryRepository.save(SubCategory.builder()
+                .name("Sync Fresh").isActive(true).category(category).build());
+        subCategoryService.deleteSubCategoryById(doomed.getSubCategory_id());
+
+        mockMvc.perform(get("/api/sync").param("since", String.valueOf(watermark)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fullResync").value(false))
+                .andExpect(jsonPath("$.subCategories[*].subCategoryId").value(containsInAnyOrder(
+                        fresh.getSubCategory_id().intValue())))
+                .andExpect(jsonPath("$.categories[*].categoryId").value(not(hasItem(category.getCategory_id().intValue()))))
+                .andExpect(jsonPath("$.deletedSubCategoryIds[0]").value(doomed.getSubCategory_id()))
+                .andExpect(jsonPath("$.deletedProductIds[0]").value(doomedProduct.getProduct_id()));
+    }
+
+    @Test
+    void firstSyncIsFullSnapshot() throws Exception {
+        mockMvc.perform(get("/api/sync"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fullResync").value(true))
+                .andExpect(jsonPath("$.watermark").isNumber());
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.BACKEND_HMS.controller;
+
+import com.example.BACKEND_HMS.Entity.Category;
+import com.example.BACKEND_HMS.Entity.Product;
+import com.example.BACKEND_HMS.Entity.SubCategory;
+import com.example.BACKEND_HMS.repository.CategoryRepository;
+import com.example.BACKEND_HMS.repository.MediaAssetRepository;
+import com.example.BACKEND_HMS.repository.ProductRepository;
+import com.example.BACKEND_HMS.repository.SubCategoryRepository;
+import com.example.BACKEND_HMS.service.CategoryService;
+import com.example.BACKEND_HMS.service.LocalMediaStorage;
+import com.example.BACKEND_HMS.service.MediaDerivativeService;
+import com.example.BACKEND_HMS.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// upload-image: 202 + job handle, background upload (local storage), phir URL product pe
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class MediaUploadTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private SubCategoryRepository subCategoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryService categoryService;
+    @Autowired private ProductService productService;
+    @Autowired private MediaAssetRepository mediaAssetRepository;
+    @Autowired private LocalMediaStorage localMediaStorage;
+    @Autowired private MediaDerivativeService mediaDerivativeService;
+
+    private Long categoryId;
+    private Long subCategoryId;
+    private Long productId;
+
+    @BeforeEach
+    void seedProduct() {
+        Category category = categoryRepository.save(Category.builder().name("Media Category").isActive(true).build());
+        SubCategory subCategory = subCategoryRepository.save(SubCategory.builder()
+                .name("Media Sub").isActive(true).category(category).build());
+        categoryId = category.getCategory_id();
+        subCategoryId = subCategory.getSubCategory_id();
+        productId = productRepository.save(Product.builder()
+                .name("Media Product").price(BigDecimal.TEN).isAvailable(true).subCategory(subCategory).build())
+                .getProduct_id();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        categoryService.deleteCategoryById(categoryId);
+    }
+
+    @Test
+    void uploadReturnsJobAndAttachesUrlWhenDone() throws Exception {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', 1, 2, 3, 4};
+        MockMultipartFile image = new MockMultipartFile("image", "apple.png", "image/png", png);
+
+        JsonNode job = uploadAndWait(productId, image);
+        assertThat(job.get("status").asText()).isEqualTo("DONE");
+
+        String url = job.get("url").asText();
+        assertThat(productRepository.findById(productId).orElseThrow().getImageUrl()).isEqualTo(url);
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(png));
+
+        // Kisi aur user ko job dikhta hi nahi
+        mockMvc.perform(get("/api/media/jobs/{id}", job.get("jobId").asLong()).with(user("someone-else").roles("USER")))
+                .andExpect(status().isNotFound());
+    }
+
+    // Same bytes do products pe → ek hi stored asset (refCount 2), thumb / list server pe bane,
+    // aur asset sirf aakhri reference jaane par storage se hate
+    @Test
+    void identicalUploadsShareOneAssetWithDerivatives() throws Exception {
+        Long secondId = productRepository.save(Product.builder()
+                .name("Media Product 2").price(BigDecimal.ONE).isAvailable(true)
+                .subCategory(subCategoryRepository.findById(subCategoryId).orElseThrow()).build())
+                .getProduct_id();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB), "png", png);
+
+        String first = uploadAndWait(productId,
+                new MockMultipartFile("image", "a.png", "image/png", png.toByteArray())).get("url").asText();
+        String second = uploadAndWait(secondId,
+                new MockMultipartFile("image", "b.png", "image/png", png.toByteArray())).get("url").asText();
+
+        assertThat(second).isEqualTo(first);
+        String sha256 = first.substring(first.lastIndexOf('/') + 1, first.lastIndexOf('.'));
+        assertThat(mediaAssetRepository.findAll())
+                .filteredOn(asset -> asset.getSha256().equals(sha256))
+                .singleElement()
+                .satisfies(asset -> assertThat(asset.getRefCount()).isEqualTo(2));
+
+        String thumbnailUrl = productService.getProductById(productId).getThumbnailUrl();
+        assertThat(thumbnailUrl).isEqualTo("/media/derived/" + sha256 + "/thumb.jpg");
+        byte[] thumb = mockMvc.perform(get(thumbnailUrl))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "image/jpeg"))
+                .andReturn().getResponse().getContentAsByteArray();
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(thumb));
+        assertThat(decoded.getWidth()).isEqualTo(160);
+        assertThat(decoded.getHeight()).isEqualTo(120);
+
+        // Disk cache se gaya - request original pe redirect, derivative background mein dobara
+        mediaDerivativeService.evict(sha256);
+        mockMvc.perform(get(thumbnailUrl))
+                .andExpect(status().isFound())
+                .andExpect(header().string("Location", first));
+        for (int i = 0; i < 100 && mediaDerivativeService.find(sha256, MediaDerivativeService.Variant.THUMB).isEmpty(); i++) {
+            Thread.sleep(50);
+        }
+        mockMvc.perform(get(thumbnailUrl)).andExpect(status().isOk());
+
+        Path stored = localMediaStorage.getRoot().resolve(sha256 + ".png");
+        productService.deleteProductById(productId);
+        assertThat(mediaAssetRepository.existsByUrl(first)).isTrue();
+        assertThat(stored).exists();
+
+        // Asset row purge worker storage delete ke saath hatata hai
+        productService.deleteProductById(secondId);
+        for (int i = 0; i < 100 && Files.exists(stored); i++) Thread.sleep(50);
+        assertThat(stored).doesNotExist();
+        for (int i = 0; i < 100 && mediaAssetRepository.existsByUrl(first); i++) Thread.sleep(50);
+        assertThat(mediaAssetRepository.existsByUrl(first)).isFalse();
+    }
+
+    private JsonNode uploadAndWait(Long id, MockMultipartFile image) throws Exception {
+        String accepted = mockMvc.perform(multipart("/api/products/{id}/upload-image", id).file(image))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        long jobId = objectMapper.readTree(accepted).get("jobId").asLong();
+
+        JsonNode job = null;
+        for (int i = 0; i < 100; i++) {
+            job = objectMapper.readTree(mockMvc.perform(get("/api/media/jobs/{id}", jobId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            if (!job.get("status").asText().matches("QUEUED|RUNNING")) break;
+            Thread.sleep(50);
+        }
+        return job;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.BACKEND_HMS.controller;
+
+import com.example.BACKEND_HMS.Entity.Category;
+import com.example.BACKEND_HMS.Entity.Product;
+import com.example.BACKEND_HMS.Entity.SubCategory;
+import com.example.BACKEND_HMS.repository.CategoryRepository;
+import com.example.BACKEND_HMS.repository.ProductRepository;
+import com.example.BACKEND_HMS.repository.SubCategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Bulk import: valid rows insert hon, galat rows ka row number + reason wapas aaye
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+@Transactional   // imported rows rollback - baaki tests ka seeded catalog na badle
+class ProductImportTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private SubCategoryRepository subCategoryRepository;
+    @Autowired private ProductRepository productRepository;
+
+    private Long subCategoryId;
+
+    @BeforeEach
+    void seedSubCategory() {
+        Category category = categoryRepository.save(Category.builder().name("Import Category").isActive(true).build());
+        subCategoryId = subCategoryRepository.save(SubCategory.builder()
+                .name("Import Sub").isActive(true).category(category).build()).getSubCategory_id();
+    }
+
+    @Test
+    void importsCsvAndReportsBadRows() throws Exception {
+        String csv = "name,description,price,stock_quantity,unit,brand,isAvailable,subCategoryId\r\n"
+                + "Alphonso Mango,\"Sweet, ripe\nfrom Ratnagiri\",120.50,40,kg,FarmCo,true," + subCategoryId + "\r\n"
+                + "Basmati Rice,,90,,kg,,," + subCategoryId + "\r\n"
+                + ",missing name,10,1,kg,,true," + subCategoryId + "\r\n"
+                + "Ghost,,10,1,kg,,true,999999\r\n";
+
+        mockMvc.perform(post("/api/products/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows").value(4))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[0].row").value(3))
+                .andExpect(jsonPath("$.errors[1].row").value(4));
+
+        Product mango = productRepository.findAll().stream()
+                .filter(p -> p.getName().equals("Alphonso Mango")).findFirst().orElseThrow();
+        assertThat(mango.getDescription()).isEqualTo("Sweet, ripe\nfrom Ratnagiri");
+        assertThat(mango.getPrice()).isEqualByComparingTo(new BigDecimal("120.50"));
+        assertThat(mango.getSubCategory().getSubCategory_id()).isEqualTo(subCategoryId);
+    }
+
+    @Test
+    void importsNdjson() throws Exception {
+        String ndjson = "{\"name\":\"Toor Dal\",\"price\":140,\"stockQuantity\":25,\"subCategoryId\":" + subCategoryId + "}\n"
+                + "{not json}\n"
+                + "\n"
+                + "{\"name\":\"Moong Dal\",\"price\":-1,\"subCategoryId\":" + subCategoryId + "}\n";
+
+        mockMvc.perform(post("/api/products/import").contentType("application/x-ndjson").content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows").value(3))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[1].message").value("price must not be negative"));
+    }
+}
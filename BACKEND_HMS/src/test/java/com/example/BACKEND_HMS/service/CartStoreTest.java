@@ -0,0 +1,362 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.DTO.AddToCartRequest;
+import com.example.BACKEND_HMS.DTO.CartBatchRequest;
+import com.example.BACKEND_HMS.DTO.CartDTO;
+import com.example.BACKEND_HMS.DTO.CartItemDTO;
+import com.example.BACKEND_HMS.DTO.CartOperationDTO;
+import com.example.BACKEND_HMS.DTO.CartSweepReportDTO;
+import com.example.BACKEND_HMS.DTO.OrderDTO;
+import com.example.BACKEND_HMS.DTO.PaymentConfirmRequest;
+import com.example.BACKEND_HMS.DTO.PlaceOrderRequest;
+import com.example.BACKEND_HMS.DTO.StockConflictDTO;
+import com.example.BACKEND_HMS.Entity.Category;
+import com.example.BACKEND_HMS.Entity.OrderStatus;
+import com.example.BACKEND_HMS.Entity.PaymentMethod;
+import com.example.BACKEND_HMS.Entity.Product;
+import com.example.BACKEND_HMS.Entity.Role;
+import com.example.BACKEND_HMS.Entity.SubCategory;
+import com.example.BACKEND_HMS.Entity.User;
+import com.example.BACKEND_HMS.repository.CategoryRepository;
+import com.example.BACKEND_HMS.repository.ProductRepository;
+import com.example.BACKEND_HMS.repository.SubCategoryRepository;
+import com.example.BACKEND_HMS.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+// Cart taps sirf memory mein; flush (scheduled / checkout) pe hi DB - ek cart ke saare edits ek saath
+@SpringBootTest(properties = "cart.store.flush-interval-ms=3600000")
+class CartStoreTest {
+
+    @Autowired private CartService cartService;
+    @Autowired private CartStore cartStore;
+    @Autowired private CartSweeperService cartSweeperService;
+    @Autowired private OrderService orderService;
+    @Autowired private PaymentService paymentService;
+    @Autowired private StockReservationService reservationService;
+    @Autowired private CategoryService categoryService;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private SubCategoryRepository subCategoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Long categoryId;
+    private SubCategory subCategory;
+    private Long productId;
+    private User user;
+
+    @BeforeEach
+    void seed() {
+        Category category = categoryRepository.save(Category.builder().name("Cart Category").isActive(true).build());
+        subCategory = subCategoryRepository.save(SubCategory.builder()
+                .name("Cart Sub").isActive(true).category(category).build());
+        categoryId = category.getCategory_id();
+        productId = productRepository.save(Product.builder()
+                .name("Cart Product").price(BigDecimal.valueOf(50)).stockQuantity(10).isAvailable(true)
+                .subCategory(subCategory).build())
+                .getProduct_id();
+        user = userRepository.save(User.builder()
+                .email("cart-store@test.local").password("x").role(Role.USER).enabled(true).build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        cartStore.flushDirty();
+        jdbcTemplate.update("DELETE FROM stock_reservations WHERE order_id IN (SELECT order_id FROM orders WHERE user_id = ?)", user.getId());
+        jdbcTemplate.update("DELETE FROM payments WHERE order_id IN (SELECT order_id FROM orders WHERE user_id = ?)", user.getId());
+        jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (SELECT order_id FROM orders WHERE user_id = ?)", user.getId());
+        jdbcTemplate.update("DELETE FROM orders WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id IN (SELECT cart_id FROM carts WHERE user_id = ?)", user.getId());
+        jdbcTemplate.update("DELETE FROM carts WHERE user_id = ?", user.getId());
+        cartStore.invalidate(user.getId());
+        userRepository.deleteById(user.getId());
+        categoryService.deleteCategoryById(categoryId);
+    }
+
+    @Test
+    void editsStayInMemoryUntilFlushAndCheckoutClearsDurably() {
+        cartService.addToCart(user, add(2));
+        CartDTO cart = cartService.addToCart(user, add(2));
+
+        assertThat(cart.getItems()).singleElement().satisfies(item -> {
+            assertThat(item.getQuantity()).isEqualTo(4);
+            assertThat(item.getCartItemId()).isEqualTo(-productId);
+        });
+        assertThat(persistedQuantity()).isNull();
+
+        cartService.updateQuantity(user, -productId, 3);
+        cartStore.flushDirty();
+        assertThat(persistedQuantity()).isEqualTo(3);
+        assertThat(cartService.getCart(user).getItems().get(0).getCartItemId()).isPositive();
+
+        PlaceOrderRequest req = new PlaceOrderRequest();
+        req.setDeliveryAddress("Test address");
+        req.setPaymentMethod(PaymentMethod.CASH_ON_DELIVERY);
+        OrderDTO order = orderService.placeOrder(user, req);
+
+        assertThat(order.getItems()).singleElement().satisfies(item -> assertThat(item.getQuantity()).isEqualTo(3));
+        assertThat(cartService.getCart(user).getItems()).isEmpty();
+        assertThat(persistedQuantity()).isNull();
+        assertThat(productRepository.findById(productId).orElseThrow().getStockQuantity()).isEqualTo(7);
+    }
+
+    // Cold load (memory mein nahi) = ek SELECT; cart na ho toh virtual khaali cart, koi INSERT nahi
+    @Test
+    void coldCartReadIsOneSelectAndNeverCreatesACart() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        CartDTO empty = cartService.getCart(user);
+        assertThat(empty.getCartId()).isNull();
+        assertThat(empty.getItems()).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM carts WHERE user_id = ?",
+                Long.class, user.getId())).isZero();
+
+        cartService.addToCart(user, add(2));
+        cartStore.flushDirty();
+        cartStore.invalidate(user.getId());
+
+        statistics.clear();
+        CartDTO cart = cartService.getCart(user);
+        assertThat(cart.getCartId()).isNotNull();
+        assertThat(cart.getItems()).singleElement().satisfies(item -> {
+            assertThat(item.getProductName()).isEqualTo("Cart Product");
+            assertThat(item.getQuantity()).isEqualTo(2);
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    // Poori list ek saath: koi bhi op fail → cart jaisa tha waisa
+    @Test
+    void batchAppliesAllOperationsOrNone() {
+        Long otherId = productRepository.save(Product.builder()
+                .name("Cart Product 2").price(BigDecimal.valueOf(20)).stockQuantity(5).isAvailable(true)
+                .subCategory(subCategory).build())
+                .getProduct_id();
+        cartService.addToCart(user, add(1));
+
+        CartDTO cart = cartService.applyBatch(user, batch(
+                CartOperationDTO.builder().op("ADD").productId(productId).quantity(2).build(),
+                CartOperationDTO.builder().op("add").productId(otherId).quantity(4).build(),
+                CartOperationDTO.builder().op("SET").cartItemId(-otherId).quantity(5).build()));
+
+        assertThat(cart.getItems()).extracting(CartItemDTO::getProductId, CartItemDTO::getQuantity)
+                .containsExactly(tuple(productId, 3),
+                        tuple(otherId, 5));
+        assertThat(cart.getTotalAmount()).isEqualTo(3 * 50.0 + 5 * 20.0);
+
+        assertThatThrownBy(() -> cartService.applyBatch(user, batch(
+                CartOperationDTO.builder().op("REMOVE").productId(productId).build(),
+                CartOperationDTO.builder().op("ADD").productId(otherId).quantity(1).build())))
+                .hasMessageContaining("Insufficient stock");
+        assertThat(cartService.getCart(user).getItems()).hasSize(2);
+    }
+
+    // Checkout flush ke baad aayi line order ke clear se nahi mitti - sirf ordered lines jaati hain
+    @Test
+    void checkoutClearKeepsLinesAddedAfterTheFlush() {
+        Long otherId = productRepository.save(Product.builder()
+                .name("Cart Product 2").price(BigDecimal.valueOf(20)).stockQuantity(5).isAvailable(true)
+                .subCategory(subCategory).build())
+                .getProduct_id();
+        cartService.addToCart(user, add(2));
+        List<CartStore.Line> ordered = cartStore.flush(user.getId());
+
+        AddToCartRequest late = new AddToCartRequest();
+        late.setProductId(otherId);
+        late.setQuantity(1);
+        cartService.addToCart(user, late);
+        cartService.clearCart(user.getId(), ordered);
+
+        assertThat(cartService.getCart(user).getItems()).extracting(CartItemDTO::getProductId)
+                .containsExactly(otherId);
+        assertThat(persistedQuantity()).isNull();
+        cartStore.flushDirty();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items i JOIN carts c ON c.cart_id = i.cart_id "
+                + "WHERE c.user_id = ? AND i.product_id = ?", Long.class, user.getId(), otherId)).isEqualTo(1);
+    }
+
+    // Flush ke baad ordered product ki quantity badli - flush wali lines copies hain, toh badli
+    // line clear se nahi mitti aur ordered quantity wahi rehti hai
+    @Test
+    void checkoutClearKeepsLinesEditedAfterTheFlush() {
+        cartService.addToCart(user, add(2));
+        List<CartStore.Line> ordered = cartStore.flush(user.getId());
+        Long cartItemId = cartService.getCart(user).getItems().get(0).getCartItemId();
+
+        cartService.updateQuantity(user, cartItemId, 5);
+        assertThat(ordered).singleElement().satisfies(line -> assertThat(line.getQuantity()).isEqualTo(2));
+        cartService.clearCart(user.getId(), ordered);
+
+        assertThat(cartService.getCart(user).getItems()).singleElement()
+                .satisfies(item -> assertThat(item.getQuantity()).isEqualTo(5));
+        cartStore.flushDirty();
+        assertThat(persistedQuantity()).isEqualTo(5);
+    }
+
+    // Conditional batch decrement: kam padi line precisely report, baaki lines ka decrement bhi rollback
+    @Test
+    void checkoutReportsShortLinesAndRollsBackTheRest() {
+        Long otherId = productRepository.save(Product.builder()
+                .name("Cart Product 2").price(BigDecimal.valueOf(20)).stockQuantity(5).isAvailable(true)
+                .subCategory(subCategory).build())
+                .getProduct_id();
+        cartService.addToCart(user, add(3));
+        AddToCartRequest other = new AddToCartRequest();
+        other.setProductId(otherId);
+        other.setQuantity(2);
+        cartService.addToCart(user, other);
+        jdbcTemplate.update("UPDATE products SET stock_quantity = 1 WHERE product_id = ?", productId);
+
+        PlaceOrderRequest req = new PlaceOrderRequest();
+        req.setDeliveryAddress("Test address");
+        req.setPaymentMethod(PaymentMethod.CASH_ON_DELIVERY);
+        assertThatThrownBy(() -> orderService.placeOrder(user, req))
+                .isInstanceOfSatisfying(StockConflictException.class, e ->
+                        assertThat(e.getConflicts())
+                                .extracting(StockConflictDTO::getProductId, StockConflictDTO::getRequested,
+                                        StockConflictDTO::getAvailable)
+                                .containsExactly(tuple(productId, 3, 1)));
+
+        assertThat(productRepository.findById(otherId).orElseThrow().getStockQuantity()).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE user_id = ?",
+                Long.class, user.getId())).isZero();
+        assertThat(cartService.getCart(user).getItems()).hasSize(2);
+    }
+
+    // Online payment: stock sirf hold (cart mein stock - reserved dikhta hai); fail / expiry pe wapas,
+    // confirm pe pakka decrement
+    @Test
+    void onlineOrderHoldsStockUntilPaymentSettles() {
+        PlaceOrderRequest req = new PlaceOrderRequest();
+        req.setDeliveryAddress("Test address");
+        req.setPaymentMethod(PaymentMethod.UPI);
+
+        cartService.addToCart(user, add(3));
+        Long failedOrder = orderService.placeOrder(user, req).getOrderId();
+        assertThat(stock()).isEqualTo(10);
+        assertThat(reservationService.reserved(productId)).isEqualTo(3);
+        assertThat(reservedInDb()).isEqualTo(3);
+        assertThatThrownBy(() -> cartService.addToCart(user, add(8))).hasMessageContaining("Insufficient stock");
+
+        paymentService.failPayment(failedOrder);
+        assertThat(reservationService.reserved(productId)).isZero();
+        assertThat(stock()).isEqualTo(10);
+
+        cartService.addToCart(user, add(4));
+        Long expiredOrder = orderService.placeOrder(user, req).getOrderId();
+        jdbcTemplate.update("UPDATE stock_reservations SET expires_at = DATEADD('MINUTE', -1, CURRENT_TIMESTAMP) "
+                + "WHERE order_id = ?", expiredOrder);
+        reservationService.expireHolds();
+        assertThat(reservationService.reserved(productId)).isZero();
+        assertThat(orderStatus(expiredOrder)).isEqualTo(OrderStatus.CANCELLED.name());
+
+        cartService.addToCart(user, add(2));
+        Long paidOrder = orderService.placeOrder(user, req).getOrderId();
+        PaymentConfirmRequest confirm = new PaymentConfirmRequest();
+        confirm.setOrderId(paidOrder);
+        confirm.setTransactionId("txn-1");
+        paymentService.confirmPayment(confirm);
+        assertThat(reservationService.reserved(productId)).isZero();
+        assertThat(reservedInDb()).isZero();
+        assertThat(stock()).isEqualTo(8);
+        assertThat(orderStatus(paidOrder)).isEqualTo(OrderStatus.CONFIRMED.name());
+    }
+
+    // Payment load aur confirm ke beech expiry hold le gayi (order abhi PENDING dikhta hai) -
+    // confirm stock order items se dobara kaat'ta hai; dobara confirm kuch nahi kaat'ta
+    @Test
+    void confirmAfterLostHoldReacquiresStockOnce() {
+        PlaceOrderRequest req = new PlaceOrderRequest();
+        req.setDeliveryAddress("Test address");
+        req.setPaymentMethod(PaymentMethod.UPI);
+        cartService.addToCart(user, add(3));
+        Long orderId = orderService.placeOrder(user, req).getOrderId();
+
+        transactionTemplate.executeWithoutResult(tx -> reservationService.release(orderId));
+        assertThat(orderStatus(orderId)).isEqualTo(OrderStatus.PENDING.name());
+
+        PaymentConfirmRequest confirm = new PaymentConfirmRequest();
+        confirm.setOrderId(orderId);
+        confirm.setTransactionId("txn-late");
+        paymentService.confirmPayment(confirm);
+        assertThat(stock()).isEqualTo(7);
+        assertThat(reservedInDb()).isZero();
+        assertThat(orderStatus(orderId)).isEqualTo(OrderStatus.CONFIRMED.name());
+
+        assertThat(paymentService.confirmPayment(confirm)).contains("already");
+        assertThat(stock()).isEqualTo(7);
+    }
+
+    // Purane carts jaate hain; jo user abhi memory mein hai uska cart chhoota nahi jaata
+    @Test
+    void sweeperPurgesIdleCartsButSparesActiveOnes() {
+        cartService.addToCart(user, add(2));
+        cartStore.flushDirty();
+        jdbcTemplate.update("UPDATE cart_items SET added_at = DATEADD('DAY', -40, added_at) "
+                + "WHERE cart_id IN (SELECT cart_id FROM carts WHERE user_id = ?)", user.getId());
+
+        CartSweepReportDTO spared = cartSweeperService.runNow();
+        assertThat(spared.getSkippedActive()).isPositive();
+        assertThat(persistedQuantity()).isEqualTo(2);
+
+        cartStore.invalidate(user.getId());
+        CartSweepReportDTO report = cartSweeperService.runNow();
+        assertThat(report.getCartsDeleted()).isPositive();
+        assertThat(report.getItemsDeleted()).isPositive();
+        assertThat(persistedQuantity()).isNull();
+        assertThat(cartService.getCart(user).getItems()).isEmpty();
+        assertThat(cartSweeperService.getLastReport()).isSameAs(report);
+    }
+
+    private static CartBatchRequest batch(CartOperationDTO... operations) {
+        CartBatchRequest req = new CartBatchRequest();
+        req.setOperations(List.of(operations));
+        return req;
+    }
+
+    private AddToCartRequest add(int quantity) {
+        AddToCartRequest req = new AddToCartRequest();
+        req.setProductId(productId);
+        req.setQuantity(quantity);
+        return req;
+    }
+
+    private String orderStatus(Long orderId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM orders WHERE order_id = ?", String.class, orderId);
+    }
+
+    private Integer stock() {
+        return productRepository.findById(productId).orElseThrow().getStockQuantity();
+    }
+
+    private Integer reservedInDb() {
+        return jdbcTemplate.queryForObject("SELECT reserved_quantity FROM products WHERE product_id = ?",
+                Integer.class, productId);
+    }
+
+    private Integer persistedQuantity() {
+        return jdbcTemplate.query(
+                "SELECT ci.quantity FROM cart_items ci JOIN carts c ON c.cart_id = ci.cart_id WHERE c.user_id = ?",
+                rs -> rs.next() ? rs.getInt(1) : null, user.getId());
+    }
+}
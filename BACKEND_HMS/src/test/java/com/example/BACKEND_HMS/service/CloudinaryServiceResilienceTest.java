@@ -0,0 +1,126 @@
+package com.example.BACKEND_HMS.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import com.example.BACKEND_HMS.utils.CircuitBreaker;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Local fake Cloudinary (upload_prefix) - slow / erroring host pe bulkhead + breaker ka behaviour
+class CloudinaryServiceResilienceTest {
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private ExecutorService serverExecutor;
+    private CloudinaryService cloudinaryService;
+    private File image;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long delayMs;
+
+    @BeforeEach
+    void startFakeHost(@TempDir Path tmp) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/", this::handle);
+        server.start();
+
+        Cloudinary cloudinary = new Cloudinary(ObjectUtils.asMap(
+                "cloud_name", "demo",
+                "api_key", "key",
+                "api_secret", "secret",
+                "upload_prefix", "http://localhost:" + server.getAddress().getPort()));
+        executor = Executors.newFixedThreadPool(2);
+        // timeout 3s (pehli call pe cold SDK / JIT ko jagah); 4 calls ki window, 2 calls ke baad 50% failure pe 60s ke liye open
+        cloudinaryService = new CloudinaryService(cloudinary, executor, new SimpleMeterRegistry(),
+                3000, 3000, 4, 2, 50, 60_000);
+
+        image = Files.write(tmp.resolve("a.png"), new byte[]{1, 2, 3}).toFile();
+    }
+
+    @AfterEach
+    void stopFakeHost() {
+        server.stop(0);
+        executor.shutdownNow();
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void slowHostTimesOutThenShortCircuitsWithoutCallingIt() throws Exception {
+        assertThat(cloudinaryService.uploadFile(image, "abc"))
+                .isEqualTo("https://fake.example/hms_images/abc.png");
+
+        delayMs = 20_000;
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> cloudinaryService.uploadFile(image, "abc")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> cloudinaryService.deleteImage("https://fake.example/hms_images/abc.png"))
+                .isInstanceOf(IOException.class);
+        assertThat((System.nanoTime() - started) / 1_000_000).isLessThan(15_000);
+        assertThat(cloudinaryService.getCircuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        int before = requests.get();
+        assertThatThrownBy(() -> cloudinaryService.uploadFile(image, "abc"))
+                .isInstanceOf(ImageHostUnavailableException.class)
+                .satisfies(e -> assertThat(((ImageHostUnavailableException) e).getRetryAfterMs()).isPositive());
+        assertThat(requests.get()).isEqualTo(before);
+    }
+
+    @Test
+    void hostErrorResponsesDoNotOpenTheCircuit() {
+        status = 400;
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> cloudinaryService.uploadFile(image, "bad"))
+                    .isInstanceOf(RuntimeException.class)
+                    .hasMessageContaining("Invalid image file");
+        }
+        assertThat(cloudinaryService.getCircuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        exchange.getRequestBody().readAllBytes();
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String body = status == 200
+                ? exchange.getRequestURI().getPath().endsWith("/destroy")
+                        ? "{\"result\":\"ok\"}"
+                        : "{\"secure_url\":\"https://fake.example/hms_images/abc.png\"}"
+                : "{\"error\":{\"message\":\"Invalid image file\"}}";
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        try {
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            // Client timeout pe connection band kar chuka
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.BACKEND_HMS.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Ek shared IP (proxy / NAT) ke peeche normal logins kabhi block na hon - sirf failures gine jaate hain
+class LoginThrottleServiceTest {
+
+    private static final String SHARED_IP = "10.0.0.1";
+
+    private final LoginThrottleService throttle = new LoginThrottleService(300, 3, 5, new SimpleMeterRegistry());
+
+    @Test
+    void successfulLoginsFromOneAddressAreNotThrottled() {
+        for (int i = 0; i < 20; i++) {
+            String email = "user" + i + "@example.com";
+            throttle.checkAllowed(email, SHARED_IP);
+            throttle.recordSuccess(email);
+        }
+
+        assertThatCode(() -> throttle.checkAllowed("next@example.com", SHARED_IP)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void failedLoginsBlockTheAddressOnly() {
+        for (int i = 0; i < 3; i++) {
+            throttle.checkAllowed("guess" + i + "@example.com", SHARED_IP);
+            throttle.recordFailure(SHARED_IP);
+        }
+
+        assertThatThrownBy(() -> throttle.checkAllowed("victim@example.com", SHARED_IP))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatCode(() -> throttle.checkAllowed("victim@example.com", "10.0.0.2")).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.BACKEND_HMS.service;
+
+import com.example.BACKEND_HMS.DTO.ProductBulkUpdateResultDTO;
+import com.example.BACKEND_HMS.DTO.ProductDeltaDTO;
+import com.example.BACKEND_HMS.Entity.Category;
+import com.example.BACKEND_HMS.Entity.Product;
+import com.example.BACKEND_HMS.Entity.SubCategory;
+import com.example.BACKEND_HMS.repository.CategoryRepository;
+import com.example.BACKEND_HMS.repository.ProductRepository;
+import com.example.BACKEND_HMS.repository.SubCategoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Har chunk apni transaction - beech ka chunk fail ho toh baaki commit, aur result batata hai kaunse
+@SpringBootTest(properties = "catalog.bulk-update.batch-size=2")
+class ProductBulkUpdateServiceTest {
+
+    @Autowired private ProductBulkUpdateService productBulkUpdateService;
+    @Autowired private CategoryService categoryService;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private SubCategoryRepository subCategoryRepository;
+    @Autowired private ProductRepository productRepository;
+
+    private Long categoryId;
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        Category category = categoryRepository.save(Category.builder().name("Bulk Category").isActive(true).build());
+        SubCategory subCategory = subCategoryRepository.save(SubCategory.builder()
+                .name("Bulk Sub").isActive(true).category(category).build());
+        categoryId = category.getCategory_id();
+        for (int i = 1; i <= 5; i++) {
+            productIds.add(productRepository.save(Product.builder()
+                    .name("Bulk Product " + i).price(BigDecimal.ONE).stockQuantity(1).isAvailable(true)
+                    .subCategory(subCategory).build())
+                    .getProduct_id());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        categoryService.deleteCategoryById(categoryId);
+    }
+
+    @Test
+    void failedChunkRollsBackAloneAndIsReported() {
+        List<ProductDeltaDTO> deltas = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            // Teesra item column ki precision se bada - uska poora chunk (3rd + 4th) fail
+            BigDecimal price = i == 2 ? new BigDecimal("1e40") : BigDecimal.valueOf(10L * (i + 1));
+            deltas.add(ProductDeltaDTO.builder().productId(productIds.get(i)).price(price).build());
+        }
+
+        ProductBulkUpdateResultDTO result = productBulkUpdateService.apply(deltas);
+
+        assertThat(result.getUpdatedIds()).containsExactly(productIds.get(0), productIds.get(1), productIds.get(4));
+        assertThat(result.getFailed()).containsExactly(productIds.get(2), productIds.get(3));
+        assertThat(result.getErrors()).hasSize(1);
+        assertThat(price(productIds.get(1))).isEqualByComparingTo("20");
+        assertThat(price(productIds.get(3))).isEqualByComparingTo("1");
+        assertThat(price(productIds.get(4))).isEqualByComparingTo("50");
+    }
+
+    private BigDecimal price(Long productId) {
+        return productRepository.findById(productId).orElseThrow().getPrice();
+    }
+}